@@ -0,0 +1,74 @@
+package algorithms;
+
+/**
+ * Node searched by the algorithms, scored from the side to move.
+ *
+ * Moves are encoded as ints chosen by the node. The algorithm owns one move buffer per ply, the node fills it and
+ * then applies or undoes the moves by their code, so searching a node does not create any object.
+ */
+public interface IMoveNode {
+  /**
+   * Utility of a terminal node won by the side to move, -WIN_UTILITY when it is lost
+   */
+  public static final int WIN_UTILITY = 1000000000;
+
+  /**
+   *  Upper bound of the number of moves of any node, used to size the move buffers. It also bounds the number of
+   *  moves left to play, the search goes no deeper.
+   */
+  public int getMaxMovesCount();
+  /**
+   *  Write the codes of all the moves which can move to the next node, return how many were written
+   *
+   * @param moves buffer of at least getMaxMovesCount() moves
+   */
+  public int getPossibleMoves(int[] moves);
+  /**
+   *  Same as getPossibleMoves, but keeps a single move among the ones leading to equivalent nodes
+   *
+   * @param moves buffer of at least getMaxMovesCount() moves
+   */
+  public int getDistinctMoves(int[] moves);
+  /**
+   * Play the move on the current node
+   *
+   * @param move
+   */
+  public void apply(int move);
+  /**
+   * Undo a previously applied move, moves are undone in the reverse order they were applied
+   *
+   * @param move
+   */
+  public void undo(int move);
+  /**
+   *  Is the current node a terminal
+   */
+  public boolean isTerminal();
+  /**
+   * Return the utility of the node from the side to move: +-WIN_UTILITY for a won or lost terminal node, a heuristic
+   * value well below it otherwise. The search turns the wins and losses into their distance from the root.
+   */
+  public int getUtility();
+  /**
+   * Return a 64 bits key identifying the node, two nodes with the same key share their cached values
+   */
+  public long getKey();
+  /**
+   * Return the move as cached under the key of the node. Nodes whose key is shared by symmetric nodes map it to the
+   * orientation the key was computed in, so that a cached move is the right one for every node of the key; other
+   * nodes return it as is.
+   *
+   * @param move a move of the node
+   */
+  public int toKeyMove(int move);
+  /**
+   * Inverse of toKeyMove: return the move of the node for a move cached under its key
+   */
+  public int fromKeyMove(int move);
+  /**
+   * Return an independent copy of the node, moves applied on one do not show on the other. The parallel searches give
+   * each thread its own copy.
+   */
+  public IMoveNode copy();
+}
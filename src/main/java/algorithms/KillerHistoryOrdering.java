@@ -0,0 +1,101 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Tries the hash move first, then the killer moves of the ply, the last two moves that cut a node at that ply, then
+ * the other moves by their history: the sum of depth * depth over the cutoffs they caused anywhere in the tree.
+ *
+ * Moves are indexes, the tables grow to the largest move seen, so ordering allocates nothing once they are sized.
+ */
+public class KillerHistoryOrdering implements MoveOrdering {
+
+  private static final int KILLERS_PER_PLY = 2;
+
+  // killers[ply * KILLERS_PER_PLY + i], -1 if none
+  private int[] killers = new int[0];
+  private int[] history = new int[0];
+
+  @Override
+  public void order(int[] moves, int movesCount, int ply, int hashMove) {
+    int ordered = 0;
+    ordered = moveTo(moves, movesCount, ordered, hashMove);
+    int killersStart = ply * KILLERS_PER_PLY;
+    if (killersStart < killers.length) {
+      for (int i = 0; i < KILLERS_PER_PLY; i++) {
+        int killer = killers[killersStart + i];
+        if (killer != hashMove) {
+          ordered = moveTo(moves, movesCount, ordered, killer);
+        }
+      }
+    }
+    // insertion sort of the rest by decreasing history, the order of the node is kept between equal moves
+    for (int i = ordered + 1; i < movesCount; i++) {
+      int move = moves[i];
+      int score = getHistory(move);
+      int j = i - 1;
+      while (j >= ordered && getHistory(moves[j]) < score) {
+        moves[j + 1] = moves[j];
+        j--;
+      }
+      moves[j + 1] = move;
+    }
+  }
+
+  /**
+   * Move the given move to the index, if it is among the moves not ordered yet, and return the next index to fill
+   */
+  private static int moveTo(int[] moves, int movesCount, int index, int move) {
+    if (move < 0) {
+      return index;
+    }
+    for (int i = index; i < movesCount; i++) {
+      if (moves[i] == move) {
+        System.arraycopy(moves, index, moves, index + 1, i - index);
+        moves[index] = move;
+        return index + 1;
+      }
+    }
+    return index;
+  }
+
+  public int getHistory(int move) {
+    return move < history.length ? history[move] : 0;
+  }
+
+  @Override
+  public void cutoff(int move, int depth, int ply) {
+    if (move >= history.length) {
+      history = Arrays.copyOf(history, Math.max(2 * history.length, move + 1));
+    }
+    // the history saturates instead of overflowing on deep or long searches
+    history[move] = (int) Math.min(Integer.MAX_VALUE, (long) history[move] + (long) depth * depth);
+
+    int killersStart = ply * KILLERS_PER_PLY;
+    if (killersStart >= killers.length) {
+      int length = killers.length;
+      killers = Arrays.copyOf(killers, Math.max(2 * length, killersStart + KILLERS_PER_PLY));
+      Arrays.fill(killers, length, killers.length, -1);
+    }
+    if (killers[killersStart] != move) {
+      killers[killersStart + 1] = killers[killersStart];
+      killers[killersStart] = move;
+    }
+  }
+
+  public int getKiller(int ply, int index) {
+    int i = ply * KILLERS_PER_PLY + index;
+    return i < killers.length ? killers[i] : -1;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(killers, -1);
+    Arrays.fill(history, 0);
+  }
+
+  @Override
+  public KillerHistoryOrdering newInstance() {
+    return new KillerHistoryOrdering();
+  }
+}
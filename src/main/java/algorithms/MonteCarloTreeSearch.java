@@ -0,0 +1,786 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monte Carlo tree search (UCT) of an IMoveNode: every playout walks down the tree picking the child of best upper
+ * confidence bound, adds the children of the node it stops at, plays random moves from there to the end of the game
+ * and counts the result in every node it went through. The move returned is the most visited child of the root.
+ *
+ * The tree lives in a pool of parallel arrays indexed by node, visits, points, first child, next sibling and move, so
+ * a search allocates nothing. Once the pool is full the tree stops growing and the playouts start from its leaves.
+ * The next search starts from the subtree of the position reached, when it is found within two plies of the
+ * previous root, the position being told by the equals of the nodes.
+ *
+ * A playout counts its visit in a node as it goes down, and its points once it comes back up: until then the visit
+ * is a virtual loss, which makes the other threads of a tree parallel search pick other branches. The statistics and
+ * the growth of the pool are atomic in such a search, the threads share the tree without locking it, and plain ints
+ * for a search on one thread.
+ *
+ * The search is anytime: it runs until the deadline of its limits, their node budget, counted in playouts, or the
+ * playouts given to the engine, whichever comes first. Its result counts the playouts as nodes.
+ */
+public class MonteCarloTreeSearch<N extends IMoveNode> {
+
+  public static enum Parallelism {
+    /**
+     * The threads run their playouts in the same tree
+     */
+    TREE,
+    /**
+     * Every thread grows a tree of its own with its share of the playouts, the visits and points of the moves of the
+     * roots are added up at the end
+     */
+    ROOT
+  }
+
+  /**
+   * Nodes of the pool of a new engine
+   */
+  public static final int DEFAULT_POOL_SIZE = 1 << 18;
+  /**
+   * Weight of the exploration term of the upper confidence bound, sqrt(2) for rewards between 0 and 1
+   */
+  public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+  private static final int NONE = -1;
+  // first child of a node whose children are being added by another thread
+  private static final int EXPANDING = -2;
+  // points of a playout for the side which moved to the node: the points are counted in half wins
+  private static final int WIN_POINTS = 2;
+  private static final int DRAW_POINTS = 1;
+
+  private final Random random = new Random();
+  private int playouts;
+  private double exploration = DEFAULT_EXPLORATION;
+  private int rolloutDepth = Integer.MAX_VALUE;
+  private ForkJoinPool pool;
+  private Parallelism parallelism = Parallelism.TREE;
+  // the calling thread first, then one per thread of the pool
+  private Worker[] workers;
+  // trees of the other threads of a root parallel search
+  private MonteCarloTreeSearch<N>[] trees;
+
+  // the pool, and a second one the reused subtree is copied to
+  private final int poolSize;
+  private Counters visits;
+  private Counters points;
+  private Counters firstChild;
+  private int[] nextSibling;
+  private int[] moves;
+  private Counters spareVisits;
+  private Counters sparePoints;
+  private Counters spareFirstChild;
+  private int[] spareNextSibling;
+  private int[] spareMoves;
+  private final AtomicInteger size = new AtomicInteger();
+  // the root is always the first node of the pool
+  private static final int ROOT = 0;
+  // copy of the root of the last search, to find the next root in its subtree
+  private N previousRoot;
+  // visits of the root and visits and points of its children, in their order, before the other trees of the last
+  // root parallel search were added to them
+  private int[] ownStatistics = new int[0];
+  private boolean merged;
+
+  // the principal variation, and the queue of the copy of the reused subtree
+  private int[] buffer = new int[0];
+  private int maxDepth;
+  private final SearchResult result = new SearchResult();
+
+  /**
+   * @param playouts playouts of a search stopped by no limit
+   * @param poolSize nodes the tree can hold
+   */
+  public MonteCarloTreeSearch(int playouts, int poolSize) {
+    this.playouts = playouts;
+    this.poolSize = poolSize;
+    visits = new PlainCounters(poolSize);
+    points = new PlainCounters(poolSize);
+    firstChild = new PlainCounters(poolSize);
+    nextSibling = new int[poolSize];
+    moves = new int[poolSize];
+    spareVisits = new PlainCounters(poolSize);
+    sparePoints = new PlainCounters(poolSize);
+    spareFirstChild = new PlainCounters(poolSize);
+    spareNextSibling = new int[poolSize];
+    spareMoves = new int[poolSize];
+  }
+
+  /**
+   * @param playouts playouts of a search stopped by no limit
+   */
+  public MonteCarloTreeSearch(int playouts) {
+    this(playouts, DEFAULT_POOL_SIZE);
+  }
+
+  public int getPlayouts() {
+    return playouts;
+  }
+
+  public void setPlayouts(int playouts) {
+    this.playouts = playouts;
+  }
+
+  public double getExploration() {
+    return exploration;
+  }
+
+  public void setExploration(double exploration) {
+    this.exploration = exploration;
+  }
+
+  public int getRolloutDepth() {
+    return rolloutDepth;
+  }
+
+  /**
+   * @param rolloutDepth random moves played at most by a playout, a game not over by then is won by the side the
+   *                     heuristic value of the node favours
+   */
+  public void setRolloutDepth(int rolloutDepth) {
+    this.rolloutDepth = rolloutDepth;
+  }
+
+  public void setSeed(long seed) {
+    random.setSeed(seed);
+  }
+
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  /**
+   * @param pool threads helping the calling thread with the playouts, null to search on the calling thread alone. A
+   *             root parallel search gives each of them a pool of nodes as large as the one of the engine.
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+    workers = null;
+    trees = null;
+  }
+
+  public Parallelism getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism how the threads of the pool share the search
+   */
+  public void setParallelism(Parallelism parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Number of nodes in the tree
+   */
+  public int size() {
+    return size.get();
+  }
+
+  public int getRootVisits() {
+    return size.get() == 0 ? 0 : visits.get(ROOT);
+  }
+
+  public SearchResult getLastResult() {
+    return result;
+  }
+
+  public int computeBestMove(N startNode) {
+    return search(startNode, new SearchLimits()).getBestMove();
+  }
+
+  /**
+   * Run playouts from the node until a limit is reached, and return the most visited move of the root. The score of
+   * the result is the mean result of the playouts through that move for the side to move, from -1000 for all lost to
+   * 1000 for all won, and its depth the deepest ply the tree reached.
+   */
+  public SearchResult search(N startNode, SearchLimits limits) {
+    long startTime = System.nanoTime();
+    long maxPlayouts = Math.min(playouts, limits.getMaxNodes());
+    long played;
+    if (pool != null && parallelism == Parallelism.ROOT) {
+      played = searchRootParallel(startNode, maxPlayouts, limits);
+    } else {
+      played = grow(startNode, maxPlayouts, limits);
+    }
+    boolean aborted = played < maxPlayouts || (played == limits.getMaxNodes() && played < playouts);
+
+    int bestChild = bestChild(ROOT);
+    int score = bestChild == NONE ? 0 : (int) Math.round(
+      1000.0 * (2.0 * points.get(bestChild) / (WIN_POINTS * Math.max(1, visits.get(bestChild))) - 1));
+    result.set(bestChild == NONE ? -1 : moves[bestChild], score, maxDepth, played, 0, 0,
+      System.nanoTime() - startTime, aborted);
+    setPrincipalVariation();
+    return result;
+  }
+
+  /**
+   * Start from the subtree of the node and run at most the given playouts in it, on the threads of the pool for a
+   * tree parallel search. Return the playouts run.
+   */
+  private long grow(N startNode, long maxPlayouts, SearchLimits limits) {
+    boolean parallel = pool != null && parallelism == Parallelism.TREE;
+    shareCounters(parallel);
+    reuseTree(startNode);
+    previousRoot = copy(startNode);
+    maxDepth = 0;
+    if (startNode.isTerminal()) {
+      return 0;
+    }
+    prepareWorkers(startNode, parallel ? workers(pool.getParallelism() + 1) : workers(1));
+    // the root has a move to return even when the deadline leaves no time for a playout
+    if (firstChild.get(ROOT) == NONE) {
+      expand(ROOT, startNode, workers[0].moveBuffer);
+    }
+    AtomicLong remaining = new AtomicLong(maxPlayouts);
+    ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[parallel ? pool.getParallelism() : 0];
+    for (int i = 0; i < helpers.length; i++) {
+      Worker worker = workers[i + 1];
+      helpers[i] = pool.submit(() -> worker.run(remaining, limits));
+    }
+    workers[0].run(remaining, limits);
+    long played = workers[0].played;
+    maxDepth = workers[0].maxDepth;
+    for (int i = 0; i < helpers.length; i++) {
+      helpers[i].join();
+      played += workers[i + 1].played;
+      maxDepth = Math.max(maxDepth, workers[i + 1].maxDepth);
+    }
+    return played;
+  }
+
+  /**
+   * Grow the trees of the pool threads and the one of the calling thread each with its share of the playouts, and add
+   * the statistics of the moves of their roots to the ones of this tree
+   */
+  private long searchRootParallel(N startNode, long maxPlayouts, SearchLimits limits) {
+    if (trees == null) {
+      trees = newTrees(pool.getParallelism());
+    }
+    long share = maxPlayouts / (trees.length + 1);
+    ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[trees.length];
+    for (int i = 0; i < trees.length; i++) {
+      MonteCarloTreeSearch<N> tree = trees[i];
+      tree.exploration = exploration;
+      tree.rolloutDepth = rolloutDepth;
+      N node = copy(startNode);
+      helpers[i] = pool.submit(() -> tree.grow(node, share, limits));
+    }
+    // the calling thread runs the playouts left over by the division
+    long played = grow(startNode, maxPlayouts - trees.length * share, limits);
+    for (ForkJoinTask<?> helper : helpers) {
+      played += (Long) helper.join();
+    }
+    saveOwnStatistics();
+    for (MonteCarloTreeSearch<N> tree : trees) {
+      maxDepth = Math.max(maxDepth, tree.maxDepth);
+      merge(tree);
+    }
+    return played;
+  }
+
+  @SuppressWarnings("unchecked")
+  private MonteCarloTreeSearch<N>[] newTrees(int count) {
+    MonteCarloTreeSearch<N>[] trees = (MonteCarloTreeSearch<N>[]) new MonteCarloTreeSearch<?>[count];
+    for (int i = 0; i < count; i++) {
+      trees[i] = new MonteCarloTreeSearch<>(playouts, poolSize);
+      trees[i].setSeed(random.nextLong());
+    }
+    return trees;
+  }
+
+  @SuppressWarnings("unchecked")
+  private N copy(N node) {
+    return (N) node.copy();
+  }
+
+  /**
+   * Keep the statistics of the root and its children grown by this tree alone, the next search reusing the tree
+   * puts them back: the playouts of the other trees did not go below the root children, whose visits would no longer
+   * be the sum of the ones of their children
+   */
+  private void saveOwnStatistics() {
+    int length = 1;
+    for (int child = firstChild.get(ROOT); child >= 0; child = nextSibling[child]) {
+      length += 2;
+    }
+    if (ownStatistics.length < length) {
+      ownStatistics = new int[length];
+    }
+    ownStatistics[0] = visits.get(ROOT);
+    int i = 1;
+    for (int child = firstChild.get(ROOT); child >= 0; child = nextSibling[child]) {
+      ownStatistics[i++] = visits.get(child);
+      ownStatistics[i++] = points.get(child);
+    }
+    merged = true;
+  }
+
+  private void restoreOwnStatistics() {
+    merged = false;
+    visits.set(ROOT, ownStatistics[0]);
+    int i = 1;
+    for (int child = firstChild.get(ROOT); child >= 0; child = nextSibling[child]) {
+      visits.set(child, ownStatistics[i++]);
+      points.set(child, ownStatistics[i++]);
+    }
+  }
+
+  /**
+   * Add the visits and points of the children of the root of the tree to the ones of the same moves in this tree
+   */
+  private void merge(MonteCarloTreeSearch<N> tree) {
+    if (firstChild.get(ROOT) < 0) {
+      return;
+    }
+    for (int other = tree.firstChild.get(ROOT); other >= 0; other = tree.nextSibling[other]) {
+      for (int child = firstChild.get(ROOT); child != NONE; child = nextSibling[child]) {
+        if (moves[child] == tree.moves[other]) {
+          visits.add(child, tree.visits.get(other));
+          points.add(child, tree.points.get(other));
+          break;
+        }
+      }
+    }
+    visits.add(ROOT, tree.visits.get(ROOT));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Worker[] workers(int count) {
+    if (workers == null || workers.length < count) {
+      Worker[] grown = (Worker[]) new MonteCarloTreeSearch<?>.Worker[count];
+      for (int i = 0; i < count; i++) {
+        // the calling thread plays with the random numbers of the engine, so that a seed makes its search repeatable
+        grown[i] = workers != null && i < workers.length ? workers[i]
+          : new Worker(i == 0 ? random : new Random(random.nextLong()));
+      }
+      workers = grown;
+    }
+    return workers;
+  }
+
+  /**
+   * Give every worker its own copy of the node to play on, the calling thread the node itself
+   */
+  private void prepareWorkers(N startNode, Worker[] workers) {
+    int count = pool != null && parallelism == Parallelism.TREE ? workers.length : 1;
+    for (int i = 0; i < count; i++) {
+      Worker worker = workers[i];
+      worker.node = i == 0 ? startNode : copy(startNode);
+      worker.played = 0;
+      worker.maxDepth = 0;
+      if (worker.moveBuffer.length < startNode.getMaxMovesCount()) {
+        worker.moveBuffer = new int[startNode.getMaxMovesCount()];
+      }
+    }
+  }
+
+  /**
+   * Back the statistics of the pool with atomic ints for the threads of a tree parallel search, with plain ones
+   * otherwise, keeping the tree
+   */
+  private void shareCounters(boolean shared) {
+    if (visits.isShared() == shared) {
+      return;
+    }
+    visits = visits.copy(shared);
+    points = points.copy(shared);
+    firstChild = firstChild.copy(shared);
+    spareVisits = spareVisits.copy(shared);
+    sparePoints = sparePoints.copy(shared);
+    spareFirstChild = spareFirstChild.copy(shared);
+  }
+
+  private static boolean pastDeadline(SearchLimits limits) {
+    return limits.getDeadline() != Long.MAX_VALUE && System.nanoTime() - limits.getDeadline() >= 0;
+  }
+
+  /**
+   * Add the children of the node, unless another thread is already adding them or the pool has no room for all of
+   * them
+   */
+  private boolean expand(int parent, N node, int[] moveBuffer) {
+    if (!firstChild.compareAndSet(parent, NONE, EXPANDING)) {
+      return false;
+    }
+    int movesCount = node.getPossibleMoves(moveBuffer);
+    int first;
+    do {
+      first = size.get();
+      if (movesCount == 0 || first + movesCount > poolSize) {
+        firstChild.set(parent, NONE);
+        return false;
+      }
+    } while (!size.compareAndSet(first, first + movesCount));
+    for (int i = 0; i < movesCount; i++) {
+      int child = first + i;
+      visits.set(child, 0);
+      points.set(child, 0);
+      firstChild.set(child, NONE);
+      nextSibling[child] = i == movesCount - 1 ? NONE : child + 1;
+      moves[child] = moveBuffer[i];
+    }
+    // publishes the children to the threads reading the first child
+    firstChild.set(parent, first);
+    return true;
+  }
+
+  /**
+   * Child of best upper confidence bound, a child never visited first
+   */
+  private int select(int parent, int first) {
+    double logVisits = Math.log(Math.max(1, visits.get(parent)));
+    int best = NONE;
+    double bestValue = Double.NEGATIVE_INFINITY;
+    for (int child = first; child != NONE; child = nextSibling[child]) {
+      int childVisits = visits.get(child);
+      if (childVisits == 0) {
+        return child;
+      }
+      double value = (double) points.get(child) / (WIN_POINTS * childVisits)
+        + exploration * Math.sqrt(logVisits / childVisits);
+      if (value > bestValue) {
+        bestValue = value;
+        best = child;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Most visited child of the node, NONE if it has none
+   */
+  private int bestChild(int parent) {
+    if (size.get() == 0) {
+      return NONE;
+    }
+    int best = NONE;
+    for (int child = firstChild.get(parent); child >= 0; child = nextSibling[child]) {
+      if (best == NONE || visits.get(child) > visits.get(best)) {
+        best = child;
+      }
+    }
+    return best;
+  }
+
+  private void setPrincipalVariation() {
+    int length = 0;
+    for (int n = bestChild(ROOT); n != NONE && visits.get(n) > 0; n = bestChild(n)) {
+      ensureBufferCapacity(length + 1);
+      buffer[length++] = moves[n];
+    }
+    result.setPrincipalVariation(buffer, length);
+  }
+
+  private void ensureBufferCapacity(int capacity) {
+    if (capacity > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(Math.max(16, capacity), 2 * buffer.length));
+    }
+  }
+
+  /**
+   * Make the node reached from the previous root the root of the tree, or start a new tree if it is not within two
+   * plies of it
+   */
+  private void reuseTree(N startNode) {
+    if (merged) {
+      restoreOwnStatistics();
+    }
+    int reused = NONE;
+    if (previousRoot != null && size.get() > 0) {
+      if (previousRoot.equals(startNode)) {
+        reused = ROOT;
+      }
+      for (int child = firstChild.get(ROOT); child >= 0 && reused == NONE; child = nextSibling[child]) {
+        previousRoot.apply(moves[child]);
+        if (previousRoot.equals(startNode)) {
+          reused = child;
+        }
+        for (int grandChild = firstChild.get(child); grandChild >= 0 && reused == NONE;
+             grandChild = nextSibling[grandChild]) {
+          previousRoot.apply(moves[grandChild]);
+          if (previousRoot.equals(startNode)) {
+            reused = grandChild;
+          }
+          previousRoot.undo(moves[grandChild]);
+        }
+        previousRoot.undo(moves[child]);
+      }
+    }
+    if (reused == NONE) {
+      size.set(1);
+      visits.set(ROOT, 0);
+      points.set(ROOT, 0);
+      firstChild.set(ROOT, NONE);
+      nextSibling[ROOT] = NONE;
+      moves[ROOT] = NONE;
+    } else if (reused != ROOT) {
+      compact(reused);
+    }
+  }
+
+  /**
+   * Copy the subtree of the node to the spare pool, its root first and the children of every node next to each
+   * other, then swap the pools
+   */
+  private void compact(int subtreeRoot) {
+    // the nodes are copied in breadth first order, the copy of the node at index i is the i-th node copied
+    ensureBufferCapacity(size.get());
+    int[] queue = buffer;
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = subtreeRoot;
+    spareNextSibling[ROOT] = NONE;
+    while (head < tail) {
+      int n = queue[head];
+      int copy = head++;
+      spareVisits.set(copy, visits.get(n));
+      sparePoints.set(copy, points.get(n));
+      spareMoves[copy] = moves[n];
+      spareFirstChild.set(copy, firstChild.get(n) < 0 ? NONE : tail);
+      // the children copied next to each other keep their order
+      for (int child = firstChild.get(n); child >= 0; child = nextSibling[child]) {
+        spareNextSibling[tail] = nextSibling[child] == NONE ? NONE : tail + 1;
+        queue[tail++] = child;
+      }
+    }
+    spareMoves[ROOT] = NONE;
+    size.set(tail);
+
+    Counters swap = visits;
+    visits = spareVisits;
+    spareVisits = swap;
+    swap = points;
+    points = sparePoints;
+    sparePoints = swap;
+    swap = firstChild;
+    firstChild = spareFirstChild;
+    spareFirstChild = swap;
+    int[] swapped = nextSibling;
+    nextSibling = spareNextSibling;
+    spareNextSibling = swapped;
+    swapped = moves;
+    moves = spareMoves;
+    spareMoves = swapped;
+  }
+
+  /**
+   * An int per node of the pool
+   */
+  private abstract static class Counters {
+
+    abstract int get(int i);
+
+    abstract void set(int i, int value);
+
+    abstract void add(int i, int delta);
+
+    abstract boolean compareAndSet(int i, int expected, int value);
+
+    /**
+     * Whether the threads of a tree parallel search can update the counters together
+     */
+    abstract boolean isShared();
+
+    abstract int length();
+
+    /**
+     * Counters of the same values, shared or not
+     */
+    Counters copy(boolean shared) {
+      Counters copy = shared ? new AtomicCounters(length()) : new PlainCounters(length());
+      for (int i = 0; i < length(); i++) {
+        copy.set(i, get(i));
+      }
+      return copy;
+    }
+  }
+
+  private static final class PlainCounters extends Counters {
+
+    private final int[] values;
+
+    PlainCounters(int length) {
+      values = new int[length];
+    }
+
+    @Override
+    int get(int i) {
+      return values[i];
+    }
+
+    @Override
+    void set(int i, int value) {
+      values[i] = value;
+    }
+
+    @Override
+    void add(int i, int delta) {
+      values[i] += delta;
+    }
+
+    @Override
+    boolean compareAndSet(int i, int expected, int value) {
+      if (values[i] != expected) {
+        return false;
+      }
+      values[i] = value;
+      return true;
+    }
+
+    @Override
+    boolean isShared() {
+      return false;
+    }
+
+    @Override
+    int length() {
+      return values.length;
+    }
+  }
+
+  private static final class AtomicCounters extends Counters {
+
+    private final AtomicIntegerArray values;
+
+    AtomicCounters(int length) {
+      values = new AtomicIntegerArray(length);
+    }
+
+    @Override
+    int get(int i) {
+      return values.get(i);
+    }
+
+    @Override
+    void set(int i, int value) {
+      values.set(i, value);
+    }
+
+    @Override
+    void add(int i, int delta) {
+      values.addAndGet(i, delta);
+    }
+
+    @Override
+    boolean compareAndSet(int i, int expected, int value) {
+      return values.compareAndSet(i, expected, value);
+    }
+
+    @Override
+    boolean isShared() {
+      return true;
+    }
+
+    @Override
+    int length() {
+      return values.length();
+    }
+  }
+
+  /**
+   * A thread running playouts in the tree, on its own copy of the root and with its own buffers
+   */
+  private class Worker {
+
+    private final Random random;
+    private N node;
+    private int[] moveBuffer = new int[0];
+    // path[i] is the node reached at ply i of the playout
+    private int[] path = new int[16];
+    private int[] rolloutMoves = new int[16];
+    private long played;
+    private int maxDepth;
+
+    Worker(Random random) {
+      this.random = random;
+    }
+
+    /**
+     * Run playouts until the shared budget is spent or a limit is reached
+     */
+    void run(AtomicLong remaining, SearchLimits limits) {
+      while (!limits.isStopped() && !pastDeadline(limits) && remaining.getAndDecrement() > 0) {
+        maxDepth = Math.max(maxDepth, playout());
+        played++;
+      }
+    }
+
+    /**
+     * One playout from the root: selection, expansion, random moves to the end and update of the nodes gone through.
+     * Return the ply of the node the random moves started from.
+     */
+    private int playout() {
+      int ply = 0;
+      path[0] = ROOT;
+      int current = ROOT;
+      visits.add(ROOT, 1);
+      while (!node.isTerminal()) {
+        int first = firstChild.get(current);
+        if (first < 0) {
+          // a leaf gets its children on its second visit, the first playout through it may well be its only one
+          if (first == EXPANDING || (current != ROOT && visits.get(current) <= 1)
+            || !expand(current, node, moveBuffer)) {
+            break;
+          }
+          first = firstChild.get(current);
+        }
+        current = select(current, first);
+        // the visit is a virtual loss until the points of the playout are added
+        visits.add(current, 1);
+        node.apply(moves[current]);
+        ply++;
+        if (ply == path.length) {
+          path = Arrays.copyOf(path, 2 * ply);
+        }
+        path[ply] = current;
+      }
+
+      // points of the side to move at the end of the path, then of each side going up
+      int result = rollout();
+      for (int i = ply; i >= 0; i--) {
+        int n = path[i];
+        // the node is worth the points of the side which moved to it, the other side than the one to move
+        result = WIN_POINTS - result;
+        points.add(n, result);
+        if (i > 0) {
+          node.undo(moves[n]);
+        }
+      }
+      return ply;
+    }
+
+    /**
+     * Play random moves from the node to the end of the game, or to the rollout depth, take them back, and return
+     * the points of the side to move at the node
+     */
+    private int rollout() {
+      int played = 0;
+      while (!node.isTerminal() && played < rolloutDepth) {
+        int movesCount = node.getPossibleMoves(moveBuffer);
+        int move = moveBuffer[random.nextInt(movesCount)];
+        node.apply(move);
+        if (played == rolloutMoves.length) {
+          rolloutMoves = Arrays.copyOf(rolloutMoves, 2 * played);
+        }
+        rolloutMoves[played++] = move;
+      }
+      int utility = node.getUtility();
+      int result = utility > 0 ? WIN_POINTS : utility < 0 ? 0 : DRAW_POINTS;
+      if (played % 2 == 1) {
+        result = WIN_POINTS - result;
+      }
+      while (played > 0) {
+        node.undo(rolloutMoves[--played]);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package algorithms;
+
+/**
+ * Decides in which order the search tries the moves of a node. The sooner the best move is tried, the more the
+ * alpha beta pruning cuts.
+ */
+public interface MoveOrdering {
+  /**
+   * Reorder the moves of the node searched at the given ply, in place
+   *
+   * @param moves the moves, as written by the node
+   * @param movesCount number of moves
+   * @param ply distance from the root
+   * @param hashMove best move found by a previous search of the node, -1 if unknown
+   */
+  public void order(int[] moves, int movesCount, int ply, int hashMove);
+
+  /**
+   * Told every time a move was good enough to cut the search of its node
+   */
+  public void cutoff(int move, int depth, int ply);
+
+  /**
+   * Forget what was learned from the previous searches
+   */
+  public void clear();
+
+  /**
+   * Return a new ordering of the same kind which learned nothing yet, for a search running on another thread
+   */
+  public MoveOrdering newInstance();
+}
@@ -0,0 +1,25 @@
+package algorithms;
+
+/**
+ * Principal variation search (NegaScout): negamax where every move but the first of a node is scouted with a zero
+ * window, to a fixed depth. It pays off when the first move is the best one, so it comes with move ordering.
+ */
+public class PVSAlgorithm<N extends IMoveNode> extends SearchEngine<N> {
+
+  /**
+   *
+   * @param useCaching if set to true, we will cache previously visited nodes
+   * @param startDepth Specify the maximal depth to explore
+   */
+  public PVSAlgorithm(boolean useCaching, int startDepth) {
+    super(Pruning.PVS, Deepening.NONE, useCaching, startDepth);
+    setMoveOrdering(new KillerHistoryOrdering());
+  }
+
+  /**
+   *
+   */
+  public PVSAlgorithm() {
+    this(true, Integer.MAX_VALUE);
+  }
+}
@@ -0,0 +1,1240 @@
+package algorithms;
+
+import algorithms.TranspositionTable.CacheFlag;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import utils.MetricRegistry;
+import utils.MetricRegistry.Counter;
+import utils.MetricRegistry.Histogram;
+import utils.MetricRegistry.Timer;
+
+/**
+ * Depth limited negamax search of an IMoveNode, the node scoring itself from the side to move.
+ *
+ * The search is put together from policies: the pruning of the tree, the transposition table, the move ordering and
+ * the deepening driving the search of the root. The algorithms of this package are configurations of it.
+ *
+ * Given a pool, the search is shared between its threads as the parallelism says, every thread with its own engine and
+ * copy of the root, all of them sharing the transposition table.
+ */
+public class SearchEngine<N extends IMoveNode> {
+
+  public static enum Pruning {
+    /**
+     * Every node is searched with a full window, all the values are exact
+     */
+    NONE,
+    ALPHA_BETA,
+    /**
+     * Principal variation search: alpha beta where only the first move of a node gets the full window, the others
+     * are scouted with a zero window and searched again only when they fail high
+     */
+    PVS
+  }
+
+  public static enum Deepening {
+    /**
+     * A single search to the start depth
+     */
+    NONE,
+    /**
+     * Searches to depth 1, 2, ... up to the start depth, each iteration starting with the best root move of the
+     * previous one, and with an aspiration window around its value when one is set
+     */
+    ITERATIVE,
+    /**
+     * Iterative deepening where the value of the root at every depth is found by a sequence of zero window searches,
+     * the first one centered on the value of the previous depth
+     */
+    MTDF
+  }
+
+  public static enum Parallelism {
+    /**
+     * The moves of the root after the first one are shared out between the threads
+     */
+    ROOT,
+    /**
+     * Lazy SMP: every thread runs the whole search of the root, half of them one ply deeper, and they only share the
+     * transposition table. The helper threads fill the table with the values the search of the calling thread needs
+     * next, the result is the one of the calling thread.
+     */
+    LAZY_SMP,
+    /**
+     * Young brothers wait: the root is split as with ROOT, and every node deep enough searches its first move alone
+     * then shares the others with the idle threads. A move failing high cancels the searches of its siblings.
+     */
+    YBWC
+  }
+
+  /**
+   * Memory of the transposition table of a new engine, replace the table to change it
+   */
+  public static final int DEFAULT_TABLE_SIZE_MB = 1;
+
+  /**
+   * The clock and the stop flag are read once every CHECK_INTERVAL nodes, a power of two
+   */
+  private static final int CHECK_INTERVAL = 256;
+
+  /**
+   * The young brothers of a node are searched in parallel only when it has at least this depth left, below it the
+   * tasks cost more than they save
+   */
+  private static final int MIN_SPLIT_DEPTH = 3;
+
+  /**
+   * Score of a game won at the root. A game won or lost at ply p scores MATE - p or p - MATE, so that the search
+   * prefers the shortest wins and the longest losses.
+   */
+  public static final int MATE = IMoveNode.WIN_UTILITY;
+  /**
+   * Deepest ply a won or lost game is told apart from a heuristic score
+   */
+  public static final int MAX_PLY = 1024;
+  /**
+   * Scores at least this far from 0 are wins or losses, the heuristic scores are kept below
+   */
+  public static final int MATE_BOUND = MATE - MAX_PLY;
+  /**
+   * Bound of the search windows, above any score
+   */
+  public static final int INFINITY = MATE + 1;
+
+  private static MetricRegistry metricRegistry = MetricRegistry.getInstance();
+  private final Pruning pruning;
+  private final Deepening deepening;
+  private boolean useCaching = true;
+  private int     startDepth = Integer.MAX_VALUE;
+  private TranspositionTable transpositionTable = new TranspositionTable(DEFAULT_TABLE_SIZE_MB);
+  private MoveOrdering moveOrdering;
+  private int aspirationWindow = 0;
+  private double aspirationGrowth = 4;
+  private String prefix = this.getClass().getName();
+  // metrics are looked up once, building their names on every node would allocate
+  private final Counter nodesCounter = metricRegistry.getCounter(prefix + "Nodes");
+  private final Counter cacheHitCounter = metricRegistry.getCounter(prefix + "CacheHit");
+  private final Counter cacheMissCounter = metricRegistry.getCounter(prefix + "CacheMiss");
+  private final Counter cutoffCounter = metricRegistry.getCounter(prefix + "Cutoff");
+  private final Counter firstMoveCutoffCounter = metricRegistry.getCounter(prefix + "FirstMoveCutoff");
+  private final Counter researchCounter = metricRegistry.getCounter(prefix + "Research");
+  private final Counter aspirationResearchCounter = metricRegistry.getCounter(prefix + "AspirationResearch");
+  private final Histogram cacheHistogram = metricRegistry.getHistogram(prefix + "Cache");
+  private final Timer globalTimer = metricRegistry.getTimer(prefix + "computeBestAction");
+  private final Timer perNodeTimer = metricRegistry.getTimer(prefix + "computeBestActionPerNode");
+  // moveBuffers[ply] holds the moves of the node searched at that ply
+  private int[][] moveBuffers = new int[0][];
+  // best root move of the running search, updated by every root search that does not fail low
+  private int rootBestMove = -1;
+  private final SearchLimits noLimits = new SearchLimits();
+  private SearchLimits limits = noLimits;
+  // statistics of the running search, added to the metrics once it is over: the metrics are not thread safe
+  private long searchedNodes = 0;
+  private long searchedCacheProbes = 0;
+  private long searchedCacheHits = 0;
+  private long searchedCutoffs = 0;
+  private long searchedFirstMoveCutoffs = 0;
+  private long searchedResearches = 0;
+  private long searchedAspirationResearches = 0;
+  // nodes whose value depends on the depth limit: evaluated by the heuristic, or taken from a table entry which was
+  // itself. An iteration adding none found the values of the whole game, a deeper one would find the same.
+  private long searchedHorizonNodes = 0;
+  // score and depth of the last iteration completed by the running search
+  private int completedScore = 0;
+  private int completedDepth = 0;
+  // triangular table of principal variations, pvTable[ply] holds the pvLengths[ply] best moves from the node at ply
+  private int[][] pvTable = new int[0][];
+  private int[] pvLengths = new int[0];
+  private final SearchResult result = new SearchResult();
+  // set once a limit is reached, the search then unwinds without using or storing any value
+  private boolean aborted = false;
+  // node budget of the running search, split between the workers searching the root in parallel
+  private long maxNodes = Long.MAX_VALUE;
+  // set by the workers of the same root search to stop each other
+  private volatile boolean stopRequested = false;
+  private int maxMovesCount = 0;
+  private ForkJoinPool pool;
+  private Parallelism parallelism = Parallelism.ROOT;
+  // engines searching on the threads of the pool, each with its own copy of the root, sharing the table of this one
+  private SearchEngine<N>[] workers;
+  private N workerRoot;
+  // only the engine of the calling thread times the root moves, the timers are not thread safe
+  private boolean timed = true;
+  // engine of the calling thread, owning the pool and the idle engines the young brothers are searched with
+  private SearchEngine<N> master = this;
+  private final ConcurrentLinkedQueue<SearchEngine<N>> idleWorkers = new ConcurrentLinkedQueue<>();
+  // moves from the root to the node searched at each ply, replayed by the engines helping with its young brothers
+  private int[] path = new int[0];
+  // innermost split point the engine searches moves of, null outside of them
+  private SplitPoint splitPoint;
+  // the root moves searched in parallel: index of the next one to take, best value so far, and the value and
+  // principal variation of each, NO_VALUE when it was not searched
+  private static final int NO_VALUE = Integer.MIN_VALUE;
+  private final AtomicInteger nextRootMove = new AtomicInteger();
+  private final AtomicInteger rootAlpha = new AtomicInteger();
+  private int[] rootValues = new int[0];
+  private int[][] rootPvs = new int[0][];
+  private int[] rootPvLengths = new int[0];
+
+  /**
+   *
+   * @param pruning how the tree is pruned
+   * @param deepening how the root is searched
+   * @param useCaching if set to true, we will cache previously visited nodes
+   * @param startDepth Specify the maximal depth to explore
+   */
+  public SearchEngine(Pruning pruning, Deepening deepening, boolean useCaching, int startDepth) {
+    this.pruning = pruning;
+    this.deepening = deepening;
+    this.useCaching = useCaching;
+    this.startDepth = startDepth;
+  }
+
+  public Pruning getPruning() {
+    return pruning;
+  }
+
+  public Deepening getDeepening() {
+    return deepening;
+  }
+
+  public boolean isUseCaching() {
+    return useCaching;
+  }
+
+  public void setUseCaching(boolean useCaching) {
+    this.useCaching = useCaching;
+  }
+
+  public int getStartDepth() {
+    return startDepth;
+  }
+
+  public void setStartDepth(int startDepth) {
+    this.startDepth = startDepth;
+  }
+
+  public TranspositionTable getTranspositionTable() {
+    return transpositionTable;
+  }
+
+  public void setTranspositionTable(TranspositionTable transpositionTable) {
+    this.transpositionTable = transpositionTable;
+  }
+
+  public MoveOrdering getMoveOrdering() {
+    return moveOrdering;
+  }
+
+  /**
+   * @param moveOrdering null to search the moves in the order the nodes write them
+   */
+  public void setMoveOrdering(MoveOrdering moveOrdering) {
+    this.moveOrdering = moveOrdering;
+    workers = null;
+  }
+
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  /**
+   * @param pool pool the moves of the root are searched on, one engine per thread of the pool, null to search on the
+   *             calling thread alone. The pool is not shut down by the engine.
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+    workers = null;
+  }
+
+  public Parallelism getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism how the threads of the pool share the search
+   */
+  public void setParallelism(Parallelism parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  public int getAspirationWindow() {
+    return aspirationWindow;
+  }
+
+  /**
+   * @param aspirationWindow half width of the window an iteration of the iterative deepening starts with, around the
+   *                         value of the previous iteration, 0 to search every iteration with a full window
+   */
+  public void setAspirationWindow(int aspirationWindow) {
+    this.aspirationWindow = aspirationWindow;
+  }
+
+  public double getAspirationGrowth() {
+    return aspirationGrowth;
+  }
+
+  /**
+   * @param aspirationGrowth factor the half width of the aspiration window grows by every time a search falls out of
+   *                         it, greater than 1
+   */
+  public void setAspirationGrowth(double aspirationGrowth) {
+    if (aspirationGrowth <= 1) {
+      throw new IllegalArgumentException("The aspiration window must grow, got " + aspirationGrowth);
+    }
+    this.aspirationGrowth = aspirationGrowth;
+  }
+
+  /**
+   * Result of the last search, filled again by the next one
+   */
+  public SearchResult getLastResult() {
+    return result;
+  }
+
+  /**
+   *  Given a start node, return the best possible move based on the current state, or -1 if there is none
+   *
+   * @param startNode
+   */
+  public int computeBestMove(N startNode){
+    return computeBestMove(startNode, noLimits);
+  }
+
+  /**
+   * Same as computeBestMove(N), stopping when one of the limits is reached. The move returned is then the best one of
+   * the last completed iteration, or a move found better by the interrupted iteration, or the first move when not
+   * even the first iteration completed.
+   */
+  public int computeBestMove(N startNode, SearchLimits limits){
+    return search(startNode, limits).getBestMove();
+  }
+
+  /**
+   * Search the node within the limits, and return the best move with its score, principal variation and statistics.
+   * The result is the one of getLastResult(), it is filled again by the next search.
+   */
+  public SearchResult search(N startNode, SearchLimits limits){
+    globalTimer.startMeasure();
+    long startTime = System.nanoTime();
+    this.limits = limits;
+    resetStatistics();
+    aborted = false;
+    maxNodes = limits.getMaxNodes();
+    ensurePvCapacity(0);
+    pvLengths[0] = 0;
+    // the table only records depths up to its maximum, and no game lasts longer than its number of moves
+    int maxDepth = Math.min(Math.min(startDepth, limits.getMaxDepth()), TranspositionTable.MAX_DEPTH);
+    maxDepth = Math.min(maxDepth, startNode.getMaxMovesCount());
+    if (startNode.getMaxMovesCount() > maxMovesCount) {
+      maxMovesCount = startNode.getMaxMovesCount();
+      moveBuffers = new int[0][];
+    }
+    // the table is kept from one search to the other, its entries from earlier moves are only aged
+    transpositionTable.newSearch();
+    if (moveOrdering != null) {
+      moveOrdering.clear();
+    }
+    if (pool != null) {
+      prepareWorkers(startNode);
+    }
+
+    ForkJoinTask<?>[] helpers = null;
+    if (pool != null && parallelism == Parallelism.LAZY_SMP) {
+      helpers = startHelpers(maxDepth, startTime);
+    }
+    deepen(startNode, maxDepth, 1, startTime);
+    if (helpers != null) {
+      stopHelpers(helpers);
+    }
+    this.limits = noLimits;
+    result.set(rootBestMove, completedScore, completedDepth, searchedNodes, searchedCacheProbes, searchedCacheHits,
+      System.nanoTime() - startTime, aborted);
+    result.setPrincipalVariation(pvTable[0], pvLengths[0]);
+    nodesCounter.update((int) searchedNodes);
+    cacheHitCounter.update((int) searchedCacheHits);
+    cacheMissCounter.update((int) (searchedCacheProbes - searchedCacheHits));
+    cutoffCounter.update((int) searchedCutoffs);
+    firstMoveCutoffCounter.update((int) searchedFirstMoveCutoffs);
+    researchCounter.update((int) searchedResearches);
+    aspirationResearchCounter.update((int) searchedAspirationResearches);
+    cacheHistogram.update(transpositionTable.size());
+    globalTimer.stopMeasure();
+    return result;
+  }
+
+  /**
+   * Search the root as the deepening says, from the given depth on, leaving the best move in rootBestMove and the
+   * value and depth of the last completed iteration in completedScore and completedDepth
+   */
+  private void deepen(N startNode, int maxDepth, int firstDepth, long startTime){
+    rootBestMove = -1;
+    completedScore = 0;
+    completedDepth = 0;
+    switch (deepening) {
+      case NONE:
+        int score = searchRoot(startNode, maxDepth, -1, -INFINITY, INFINITY);
+        if (!aborted) {
+          completedScore = score;
+          completedDepth = maxDepth;
+        }
+        break;
+      case ITERATIVE:
+        // values of the last two iterations, the value of a node swings with the side moving last
+        int value = 0;
+        int previousValue = 0;
+        for (int depth = firstDepth; depth <= maxDepth && canStartIteration(depth, startTime); depth++) {
+          long horizonNodes = searchedHorizonNodes;
+          int expected = previousValue;
+          previousValue = value;
+          if (depth > 2 && aspirationWindow > 0 && pruning != Pruning.NONE) {
+            value = aspirationSearch(startNode, expected, depth);
+          } else {
+            value = searchRoot(startNode, depth, rootBestMove, -INFINITY, INFINITY);
+          }
+          if (!aborted) {
+            completedScore = value;
+            completedDepth = depth;
+            if (isComplete(value, horizonNodes)) {
+              break;
+            }
+          }
+        }
+        break;
+      case MTDF:
+        int guess = 0;
+        for (int depth = firstDepth; depth <= maxDepth && canStartIteration(depth, startTime); depth++) {
+          long horizonNodes = searchedHorizonNodes;
+          guess = mtdfRoot(startNode, guess, depth);
+          if (!aborted) {
+            completedScore = guess;
+            completedDepth = depth;
+            if (isComplete(guess, horizonNodes)) {
+              break;
+            }
+          }
+        }
+        break;
+    }
+  }
+
+  /**
+   * Whether the iteration which started with the given count of horizon nodes leaves nothing to deepen: its value is
+   * a win or a loss, the shortest one being found first, or none of its nodes was cut by the depth limit
+   */
+  private boolean isComplete(int value, long horizonNodes){
+    return Math.abs(value) >= MATE_BOUND || searchedHorizonNodes == horizonNodes;
+  }
+
+  private void resetStatistics(){
+    searchedNodes = 0;
+    searchedCacheProbes = 0;
+    searchedCacheHits = 0;
+    searchedCutoffs = 0;
+    searchedFirstMoveCutoffs = 0;
+    searchedResearches = 0;
+    searchedAspirationResearches = 0;
+    searchedHorizonNodes = 0;
+  }
+
+  private void addStatistics(SearchEngine<N> worker){
+    searchedNodes += worker.searchedNodes;
+    searchedCacheProbes += worker.searchedCacheProbes;
+    searchedCacheHits += worker.searchedCacheHits;
+    searchedCutoffs += worker.searchedCutoffs;
+    searchedFirstMoveCutoffs += worker.searchedFirstMoveCutoffs;
+    searchedResearches += worker.searchedResearches;
+    searchedAspirationResearches += worker.searchedAspirationResearches;
+    searchedHorizonNodes += worker.searchedHorizonNodes;
+  }
+
+  /**
+   * Start the helper threads of the lazy SMP search, every other one starting one ply deeper so that they do not all
+   * search the same nodes at the same time
+   */
+  private ForkJoinTask<?>[] startHelpers(int maxDepth, long startTime){
+    ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[pool.getParallelism()];
+    for (int i = 0; i < helpers.length; i++) {
+      SearchEngine<N> worker = workers[i];
+      int firstDepth = Math.min(maxDepth, 1 + (i + 1) % 2);
+      prepareWorker(worker, maxNodes / (helpers.length + 1));
+      helpers[i] = pool.submit(() -> worker.deepen(worker.workerRoot, maxDepth, firstDepth, startTime));
+    }
+    // the calling thread keeps its share of the node budget
+    maxNodes /= helpers.length + 1;
+    return helpers;
+  }
+
+  /**
+   * Stop the helpers once the calling thread is done, and count their nodes
+   */
+  private void stopHelpers(ForkJoinTask<?>[] helpers){
+    for (int i = 0; i < helpers.length; i++) {
+      workers[i].stopRequested = true;
+    }
+    for (int i = 0; i < helpers.length; i++) {
+      helpers[i].join();
+      addStatistics(workers[i]);
+    }
+  }
+
+  /**
+   * Whether the next iteration can be started: none once the search is aborted, and none that would likely not
+   * complete before the deadline, an iteration taking longer than all the previous ones together
+   */
+  private boolean canStartIteration(int depth, long startTime){
+    if (aborted) {
+      return false;
+    }
+    if (depth == 1 || limits.getDeadline() == Long.MAX_VALUE) {
+      return true;
+    }
+    long now = System.nanoTime();
+    return now - startTime < limits.getDeadline() - now;
+  }
+
+  /**
+   * Whether the search has to stop, the node budget is checked on every node, the clock and the stop flag only every
+   * CHECK_INTERVAL nodes
+   */
+  private boolean limitReached(){
+    searchedNodes++;
+    if (searchedNodes > maxNodes
+      || (searchedNodes & (CHECK_INTERVAL - 1)) == 0
+        && (stopRequested || limits.isStopped() || pastDeadline() || isCancelled(splitPoint))) {
+      aborted = true;
+    }
+    return aborted;
+  }
+
+  private boolean pastDeadline(){
+    // nanoTime values can be negative, they are compared through their difference
+    return limits.getDeadline() != Long.MAX_VALUE && System.nanoTime() - limits.getDeadline() >= 0;
+  }
+
+  /**
+   * Search every distinct move of the root to the given depth within the window and return the value of the root.
+   * Unless the search fails low, the best move found becomes the best root move.
+   *
+   * @param firstMove move searched first, -1 to start with the best move the table knows for the root
+   */
+  private int searchRoot(N startNode, int depth, int firstMove, int alpha, int beta){
+    if (startNode.isTerminal()) {
+      return terminalScore(startNode.getUtility(), 0);
+    }
+    long key = 0;
+    if (useCaching) {
+      key = startNode.getKey();
+      long entry = transpositionTable.probe(key);
+      if (firstMove < 0 && entry != 0) {
+        firstMove = fromTableMove(startNode, TranspositionTable.getMove(entry));
+      }
+    }
+    int[] moves = getMoveBuffer(0);
+    int movesCount = startNode.getDistinctMoves(moves);
+    moveFirst(moves, movesCount, firstMove);
+
+    int orgAlpha = alpha;
+    int bestOutcome = -INFINITY;
+    int bestMove = -1;
+    // once the first move gave a value to start from, the others can be searched in parallel
+    boolean parallel = pool != null && parallelism != Parallelism.LAZY_SMP && depth > 1;
+    for (int i = 0; i < movesCount; i++){
+      if (parallel && i == 1) {
+        searchRootParallel(depth, moves, movesCount, alpha, beta);
+      }
+      int outcome;
+      if (parallel && i > 0) {
+        // the values are taken in the order of the moves, the best move is the first one of the best value as in
+        // the sequential search
+        outcome = rootValues[i];
+        if (outcome == NO_VALUE) {
+          continue;
+        }
+        if (outcome > alpha) {
+          setPv(0, moves[i], rootPvs[i], rootPvLengths[i]);
+        }
+      } else {
+        if (timed) {
+          perNodeTimer.startMeasure();
+        }
+        startNode.apply(moves[i]);
+        path[0] = moves[i];
+        outcome = searchChild(startNode, depth, 1, alpha, beta, i == 0);
+        startNode.undo(moves[i]);
+        if (timed) {
+          perNodeTimer.stopMeasure();
+        }
+        if (aborted) {
+          break;
+        }
+        if (outcome > alpha) {
+          updatePv(0, moves[i]);
+        }
+      }
+      if (outcome > bestOutcome){
+        bestMove = moves[i];
+        bestOutcome = outcome;
+      }
+      alpha = Math.max(alpha, outcome);
+      if (alpha >= beta) {
+        break;
+      }
+    }
+    if (bestMove < 0) {
+      if (rootBestMove < 0 && movesCount > 0) {
+        // stopped before the first move was searched, any move is better than none
+        rootBestMove = moves[0];
+        pvTable[0][0] = rootBestMove;
+        pvLengths[0] = 1;
+      }
+      return bestOutcome;
+    }
+    // the moves searched by an interrupted search have their value, the first one being the previous best move
+    if (bestOutcome > orgAlpha || rootBestMove < 0) {
+      rootBestMove = bestMove;
+    }
+    if (useCaching && !aborted) {
+      // the next search of the root, at this move or the next ones, starts with its best move
+      int rootDepth = depth == Integer.MAX_VALUE ? depth : depth + 1;
+      CacheFlag flag;
+      if (bestOutcome <= orgAlpha) {
+        flag = CacheFlag.UPPERBOUND;
+      } else if (bestOutcome >= beta) {
+        flag = CacheFlag.LOWERBOUND;
+      } else {
+        flag = CacheFlag.EXACT;
+      }
+      transpositionTable.store(key, rootDepth, bestOutcome, flag, toTableMove(startNode, rootBestMove));
+    }
+    return bestOutcome;
+  }
+
+  /**
+   * Create the workers on the first parallel search, and give each a copy of the root
+   */
+  @SuppressWarnings("unchecked")
+  private void prepareWorkers(N startNode){
+    if (workers == null) {
+      // one engine per thread for the root, and as many for the young brothers
+      workers = (SearchEngine<N>[]) new SearchEngine<?>[2 * pool.getParallelism()];
+      for (int i = 0; i < workers.length; i++) {
+        workers[i] = new SearchEngine<>(pruning, deepening, useCaching, startDepth);
+        workers[i].moveOrdering = moveOrdering == null ? null : moveOrdering.newInstance();
+        workers[i].timed = false;
+        workers[i].master = this;
+      }
+    }
+    idleWorkers.clear();
+    for (int i = pool.getParallelism(); i < workers.length; i++) {
+      idleWorkers.add(workers[i]);
+    }
+    if (rootValues.length < maxMovesCount) {
+      rootValues = new int[maxMovesCount];
+      rootPvLengths = new int[maxMovesCount];
+      rootPvs = new int[maxMovesCount][];
+      for (int i = 0; i < maxMovesCount; i++) {
+        rootPvs[i] = new int[1];
+      }
+    }
+    for (SearchEngine<N> worker : workers) {
+      worker.splitPoint = null;
+      worker.useCaching = useCaching;
+      worker.transpositionTable = transpositionTable;
+      worker.aspirationWindow = aspirationWindow;
+      worker.aspirationGrowth = aspirationGrowth;
+      worker.limits = limits;
+      worker.workerRoot = (N) startNode.copy();
+      if (worker.maxMovesCount != maxMovesCount) {
+        worker.maxMovesCount = maxMovesCount;
+        worker.moveBuffers = new int[0][];
+      }
+      if (worker.moveOrdering != null) {
+        worker.moveOrdering.clear();
+      }
+    }
+  }
+
+  /**
+   * Ready the worker for a new task with the given node budget
+   */
+  private static void prepareWorker(SearchEngine<?> worker, long maxNodes){
+    worker.resetStatistics();
+    worker.aborted = false;
+    worker.stopRequested = false;
+    worker.maxNodes = maxNodes;
+    worker.ensurePvCapacity(0);
+    worker.pvLengths[0] = 0;
+  }
+
+  /**
+   * Search the root moves from the second one on the threads of the pool, filling rootValues. Each move is searched
+   * from the best value found so far minus one, so that a move worth as much as the best one gets its exact value.
+   */
+  private void searchRootParallel(int depth, int[] moves, int movesCount, int alpha, int beta){
+    Arrays.fill(rootValues, 0, movesCount, NO_VALUE);
+    nextRootMove.set(1);
+    rootAlpha.set(alpha);
+    ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[pool.getParallelism()];
+    for (int i = 0; i < tasks.length; i++) {
+      SearchEngine<N> worker = workers[i];
+      prepareWorker(worker, Math.max(0, maxNodes - searchedNodes) / tasks.length);
+      tasks[i] = pool.submit(() -> searchRootMoves(worker, depth, moves, movesCount, beta));
+    }
+    for (int i = 0; i < tasks.length; i++) {
+      tasks[i].join();
+      addStatistics(workers[i]);
+      aborted |= workers[i].aborted;
+    }
+  }
+
+  /**
+   * Loop of a worker: take the next root move not searched yet and search it, until there are none left, the root
+   * fails high or a limit is reached
+   */
+  private void searchRootMoves(SearchEngine<N> worker, int depth, int[] moves, int movesCount, int beta){
+    N node = worker.workerRoot;
+    int i;
+    while ((i = nextRootMove.getAndIncrement()) < movesCount) {
+      int alpha = rootAlpha.get();
+      if (alpha >= beta) {
+        return;
+      }
+      node.apply(moves[i]);
+      worker.path[0] = moves[i];
+      int value = worker.searchChild(node, depth, 1, alpha - 1, beta, false);
+      node.undo(moves[i]);
+      if (worker.aborted) {
+        for (int w = 0; w < pool.getParallelism(); w++) {
+          workers[w].stopRequested = true;
+        }
+        return;
+      }
+      rootValues[i] = value;
+      int length = worker.pvLengths[1];
+      if (rootPvs[i].length < length) {
+        rootPvs[i] = new int[Math.max(length, 2 * rootPvs[i].length)];
+      }
+      System.arraycopy(worker.pvTable[1], 0, rootPvs[i], 0, length);
+      rootPvLengths[i] = length;
+      rootAlpha.accumulateAndGet(value, Math::max);
+    }
+  }
+
+  /**
+   * Search the root in a window around the value expected, widening the side it falls out of until the value is
+   * inside
+   */
+  private int aspirationSearch(N startNode, int expected, int depth){
+    long delta = aspirationWindow;
+    int alpha = windowBound(expected - delta);
+    int beta = windowBound(expected + delta);
+    while (true) {
+      int value = searchRoot(startNode, depth, rootBestMove, alpha, beta);
+      if (aborted || value > alpha && value < beta || alpha == -INFINITY && beta == INFINITY) {
+        return value;
+      }
+      searchedAspirationResearches++;
+      delta = (long) (delta * aspirationGrowth);
+      if (value <= alpha) {
+        alpha = windowBound(value - delta);
+      } else {
+        beta = windowBound(value + delta);
+      }
+    }
+  }
+
+  private static int windowBound(long bound){
+    return (int) Math.max(-INFINITY, Math.min(INFINITY, bound));
+  }
+
+  /**
+   * Find the value of the root by zero window searches converging from the first guess f, the last search failing
+   * high gives the best root move
+   */
+  private int mtdfRoot(N startNode, int f, int depth){
+    int g = f;
+    int upperBound = INFINITY;
+    int lowerBound = -INFINITY;
+    do {
+      int beta = (g == lowerBound) ? g + 1 : g;
+      g = searchRoot(startNode, depth, rootBestMove, beta - 1, beta);
+      if (aborted) {
+        return g;
+      }
+      if (g < beta){
+        upperBound = g;
+      } else {
+        lowerBound = g;
+      }
+    } while(lowerBound < upperBound);
+    return g;
+  }
+
+  private static void moveFirst(int[] moves, int movesCount, int move){
+    for (int i = 1; i < movesCount; i++) {
+      if (moves[i] == move) {
+        System.arraycopy(moves, 0, moves, 1, i);
+        moves[0] = move;
+        return;
+      }
+    }
+  }
+
+  private void ensurePvCapacity(int ply){
+    if (ply + 1 >= pvLengths.length) {
+      int length = Math.max(2 * pvLengths.length, ply + 2);
+      pvLengths = Arrays.copyOf(pvLengths, length);
+      path = Arrays.copyOf(path, length);
+      int[][] table = Arrays.copyOf(pvTable, length);
+      for (int i = pvTable.length; i < length; i++) {
+        table[i] = new int[1];
+      }
+      pvTable = table;
+    }
+  }
+
+  /**
+   * The move becomes the first of the principal variation of the node at ply, followed by the one of its child
+   */
+  private void updatePv(int ply, int move){
+    setPv(ply, move, pvTable[ply + 1], pvLengths[ply + 1]);
+  }
+
+  private void setPv(int ply, int move, int[] childPv, int childLength){
+    if (pvTable[ply].length < childLength + 1) {
+      pvTable[ply] = new int[Math.max(childLength + 1, 2 * pvTable[ply].length)];
+    }
+    pvTable[ply][0] = move;
+    System.arraycopy(childPv, 0, pvTable[ply], 1, childLength);
+    pvLengths[ply] = childLength + 1;
+  }
+
+  /**
+   * Return the move buffer of the given ply, buffers are created on the first search reaching the ply and then reused
+   */
+  private int[] getMoveBuffer(int ply){
+    if (ply >= moveBuffers.length) {
+      int[][] buffers = Arrays.copyOf(moveBuffers, Math.max(2 * moveBuffers.length, ply + 1));
+      for (int i = moveBuffers.length; i < buffers.length; i++) {
+        buffers[i] = new int[maxMovesCount];
+      }
+      moveBuffers = buffers;
+    }
+    return moveBuffers[ply];
+  }
+
+  /**
+   *  Return the value of the node from the side to move, searching the moves that follow.
+   *  Depth is used to limit how far down the tree we should go. A value greater than zero means we can explore more
+   *
+   * @param startNode
+   * @param depth
+   * @param ply distance from the root, selects the move buffer of the node
+   */
+  public int negaMax(N startNode, int depth, int ply, int alpha, int beta){
+    if (limitReached()) {
+      return 0;
+    }
+    if (pruning == Pruning.NONE) {
+      alpha = -INFINITY;
+      beta = INFINITY;
+    }
+    ensurePvCapacity(ply);
+    pvLengths[ply] = 0;
+    if (startNode.isTerminal()) {
+      return terminalScore(startNode.getUtility(), ply);
+    }
+    int orgAlpha = alpha;
+    long horizonNodes = searchedHorizonNodes;
+    long key = 0;
+    int hashMove = -1;
+    if (useCaching) {
+      key = startNode.getKey();
+      long entry = transpositionTable.probe(key);
+      searchedCacheProbes++;
+      if (entry != 0) {
+        searchedCacheHits++;
+        hashMove = fromTableMove(startNode, TranspositionTable.getMove(entry));
+        if (TranspositionTable.getDepth(entry) >= depth) {
+          int value = fromTableScore(TranspositionTable.getScore(entry), ply);
+          // the entries of complete subtrees are stored at the deepest depth
+          if (TranspositionTable.getDepth(entry) < TranspositionTable.MAX_DEPTH) {
+            searchedHorizonNodes++;
+          }
+          switch (TranspositionTable.getFlag(entry)) {
+            case EXACT:
+              return value;
+            case LOWERBOUND:
+              alpha = Math.max(alpha, value);
+              break;
+            case UPPERBOUND:
+              beta = Math.min(beta, value);
+              break;
+          }
+          if (alpha >= beta) return value;
+        }
+      }
+    }
+
+    if (depth == 0) {
+      searchedHorizonNodes++;
+      // keeps the heuristic below the wins and losses
+      return Math.max(-MATE_BOUND + 1, Math.min(MATE_BOUND - 1, startNode.getUtility()));
+    }
+
+    int[] moves = getMoveBuffer(ply);
+    int movesCount = startNode.getPossibleMoves(moves);
+    if (moveOrdering != null) {
+      moveOrdering.order(moves, movesCount, ply, hashMove);
+    }
+    int bestValue = -INFINITY;
+    int bestMove = -1;
+    for (int i = 0; i < movesCount; i++){
+      int value;
+      int move = moves[i];
+      if (i == 1 && canSplit(depth, movesCount)) {
+        // the eldest brother did not cut the node, the young ones are searched in parallel
+        SiblingSearch best = splitSiblings(startNode, depth, ply, moves, movesCount, alpha, beta);
+        if (aborted) {
+          return 0;
+        }
+        if (best.index < 0) {
+          break;
+        }
+        value = best.value;
+        move = moves[best.index];
+        if (value > alpha) {
+          setPv(ply, move, best.pv, best.pvLength);
+        }
+        // no move is left to search, the loop ends on this one
+        i = movesCount - 1;
+      } else {
+        startNode.apply(move);
+        path[ply] = move;
+        value = searchChild(startNode, depth - 1, ply + 1, alpha, beta, i == 0);
+        startNode.undo(move);
+        if (aborted) {
+          return 0;
+        }
+        if (value > alpha) {
+          updatePv(ply, move);
+        }
+      }
+      if (value > bestValue) {
+        bestValue = value;
+        bestMove = move;
+      }
+      alpha = Math.max(alpha, bestValue);
+      if (alpha >= beta && pruning != Pruning.NONE) {
+        searchedCutoffs++;
+        if (i == 0) {
+          searchedFirstMoveCutoffs++;
+        }
+        if (moveOrdering != null) {
+          moveOrdering.cutoff(move, depth, ply);
+        }
+        break;
+      }
+    }
+
+    if (useCaching) {
+      CacheFlag flag;
+      if (bestValue <= orgAlpha) {
+        flag = CacheFlag.UPPERBOUND;
+      } else if (bestValue >= beta) {
+        flag = CacheFlag.LOWERBOUND;
+      } else {
+        flag = CacheFlag.EXACT;
+      }
+      // a subtree the depth limit did not cut holds for any depth
+      int storedDepth = searchedHorizonNodes == horizonNodes ? TranspositionTable.MAX_DEPTH : depth;
+      transpositionTable.store(key, storedDepth, toTableScore(bestValue, ply), flag, toTableMove(startNode, bestMove));
+    }
+    return bestValue;
+  }
+
+  /**
+   * Score of a terminal node reached at the given ply, from the utility the node gives it
+   */
+  private static int terminalScore(int utility, int ply){
+    if (utility >= MATE) {
+      return MATE - ply;
+    }
+    if (utility <= -MATE) {
+      return ply - MATE;
+    }
+    return utility;
+  }
+
+  /**
+   * The table keeps the wins and losses as their distance from the node rather than from the root, so that they stay
+   * right for the node reached at another ply
+   */
+  private static int toTableScore(int score, int ply){
+    if (score >= MATE_BOUND) {
+      return score + ply;
+    }
+    if (score <= -MATE_BOUND) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  private static int fromTableScore(int score, int ply){
+    if (score >= MATE_BOUND) {
+      return score - ply;
+    }
+    if (score <= -MATE_BOUND) {
+      return score + ply;
+    }
+    return score;
+  }
+
+  /**
+   * The table keeps the moves in the orientation of the key of the node, which symmetric nodes share
+   */
+  private static int toTableMove(IMoveNode node, int move){
+    return move < 0 ? move : node.toKeyMove(move);
+  }
+
+  private static int fromTableMove(IMoveNode node, int move){
+    return move < 0 ? move : node.fromKeyMove(move);
+  }
+
+  /**
+   * Share of the cutoffs caused by the first move searched, the closer to 1 the better the move ordering
+   */
+  public double getFirstMoveCutoffRate() {
+    int cutoffs = cutoffCounter.getCount();
+    return cutoffs == 0 ? 0 : (double) firstMoveCutoffCounter.getCount() / cutoffs;
+  }
+
+  /**
+   * Return the value of the child the node was just moved to, from the side to move in the node
+   *
+   * @param depth depth left to the child
+   * @param ply distance from the root to the child
+   * @param firstMove whether the child is the first one of its node, the only one PVS searches with a full window
+   */
+  private int searchChild(N child, int depth, int ply, int alpha, int beta, boolean firstMove){
+    if (pruning != Pruning.PVS || firstMove) {
+      return -negaMax(child, depth, ply, -beta, -alpha);
+    }
+    int value = -negaMax(child, depth, ply, -alpha - 1, -alpha);
+    if (value > alpha && value < beta && !aborted) {
+      searchedResearches++;
+      value = -negaMax(child, depth, ply, -beta, -value);
+    }
+    return value;
+  }
+
+  private boolean canSplit(int depth, int movesCount){
+    return master.parallelism == Parallelism.YBWC && master.pool != null && depth >= MIN_SPLIT_DEPTH
+      && movesCount > 2 && !master.idleWorkers.isEmpty();
+  }
+
+  /**
+   * Whether the best move of a sibling search takes the place of the best one so far. A brother failing low on a
+   * window raised by another one only bounds its value: of two moves of the same value, an exact one is kept over a
+   * bound, and of two exact ones the first in the order of the moves.
+   */
+  static boolean isBetterSibling(int value, boolean exact, int index, int bestValue, boolean bestExact,
+                                 int bestIndex){
+    if (value != bestValue) {
+      return value > bestValue;
+    }
+    return exact && (!bestExact || index < bestIndex);
+  }
+
+  private static boolean isCancelled(SplitPoint split){
+    for (; split != null; split = split.parent) {
+      if (split.cutoff) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Search the moves of the node from the second one, with the idle engines there are and this one, and return the
+   * best of them: its index, -1 if none was searched, value and principal variation
+   */
+  private SiblingSearch splitSiblings(N node, int depth, int ply, int[] moves, int movesCount, int alpha, int beta){
+    SplitPoint split = new SplitPoint(splitPoint, moves, movesCount, alpha, beta);
+    // every engine gets an even share of the nodes left
+    int helpers = Math.min(movesCount - 2, master.pool.getParallelism());
+    List<SiblingSearch> tasks = new ArrayList<>(helpers);
+    SearchEngine<N> worker;
+    while (tasks.size() < helpers && (worker = master.idleWorkers.poll()) != null) {
+      tasks.add(new SiblingSearch(worker, node, split, depth, ply));
+    }
+    long savedMaxNodes = maxNodes;
+    long share = Math.max(0, maxNodes - searchedNodes) / (tasks.size() + 1);
+    for (SiblingSearch task : tasks) {
+      SearchEngine<N> helper = task.engine;
+      prepareWorker(helper, share);
+      helper.splitPoint = split;
+      helper.ensurePvCapacity(ply);
+      System.arraycopy(path, 0, helper.path, 0, ply);
+      if (ForkJoinTask.getPool() == master.pool) {
+        task.fork();
+      } else {
+        master.pool.execute(task);
+      }
+    }
+
+    SplitPoint parentSplit = splitPoint;
+    splitPoint = split;
+    maxNodes = searchedNodes + share;
+    SiblingSearch best = new SiblingSearch(this, node, split, depth, ply);
+    best.searchSiblings();
+    splitPoint = parentSplit;
+    maxNodes = savedMaxNodes;
+
+    boolean stopped = aborted;
+    for (SiblingSearch task : tasks) {
+      task.join();
+      stopped |= task.engine.aborted;
+      addStatistics(task.engine);
+      master.idleWorkers.offer(task.engine);
+      if (task.index >= 0 && isBetterSibling(task.value, task.exact, task.index, best.value, best.exact, best.index)) {
+        best = task;
+      }
+    }
+    if (stopped) {
+      // the searches stopped by the cutoff of a brother lose nothing, any other stop is one of the whole search
+      aborted = !split.cutoff || isCancelled(parentSplit) || stopRequested || limits.isStopped() || pastDeadline()
+        || searchedNodes > maxNodes;
+    }
+    return best;
+  }
+
+  /**
+   * Moves of a node shared between the engines searching them, with the best value found so far and whether one of
+   * them failed high
+   */
+  private static class SplitPoint {
+    final SplitPoint parent;
+    final int[] moves;
+    final int movesCount;
+    final int beta;
+    final AtomicInteger nextMove = new AtomicInteger(1);
+    final AtomicInteger alpha;
+    volatile boolean cutoff = false;
+
+    SplitPoint(SplitPoint parent, int[] moves, int movesCount, int alpha, int beta) {
+      this.parent = parent;
+      this.moves = moves;
+      this.movesCount = movesCount;
+      this.alpha = new AtomicInteger(alpha);
+      this.beta = beta;
+    }
+  }
+
+  /**
+   * Search of moves of a split point by one engine, on the node of the split point or, on another thread, on its own
+   * copy of the root moved to it. It keeps the best move it searched.
+   */
+  private class SiblingSearch extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    final SearchEngine<N> engine;
+    final N node;
+    final SplitPoint split;
+    final int depth;
+    final int ply;
+    int index = -1;
+    int value = -INFINITY;
+    // whether the value was found inside the window of its search, rather than being one of its bounds
+    boolean exact = false;
+    int[] pv = new int[0];
+    int pvLength = 0;
+
+    SiblingSearch(SearchEngine<N> engine, N node, SplitPoint split, int depth, int ply) {
+      this.engine = engine;
+      this.node = engine == SearchEngine.this ? node : engine.workerRoot;
+      this.split = split;
+      this.depth = depth;
+      this.ply = ply;
+    }
+
+    @Override
+    protected void compute() {
+      for (int i = 0; i < ply; i++) {
+        node.apply(engine.path[i]);
+      }
+      searchSiblings();
+      for (int i = ply - 1; i >= 0; i--) {
+        node.undo(engine.path[i]);
+      }
+    }
+
+    void searchSiblings() {
+      int i;
+      while (!split.cutoff && (i = split.nextMove.getAndIncrement()) < split.movesCount) {
+        int alpha = split.alpha.get();
+        int move = split.moves[i];
+        node.apply(move);
+        engine.ensurePvCapacity(ply);
+        engine.path[ply] = move;
+        int result = engine.searchChild(node, depth - 1, ply + 1, alpha, split.beta, false);
+        node.undo(move);
+        if (engine.aborted) {
+          return;
+        }
+        if (result > value) {
+          index = i;
+          value = result;
+          exact = result > alpha && result < split.beta;
+          int length = engine.pvLengths[ply + 1];
+          if (pv.length < length) {
+            pv = new int[Math.max(length, 2 * pv.length)];
+          }
+          System.arraycopy(engine.pvTable[ply + 1], 0, pv, 0, length);
+          pvLength = length;
+        }
+        if (result > alpha) {
+          split.alpha.accumulateAndGet(result, Math::max);
+        }
+        if (result >= split.beta) {
+          split.cutoff = true;
+        }
+      }
+    }
+  }
+
+  public String report() {
+    return String.format(
+        this.getClass().getName() +
+        ": \n"
+        + " GlobalTimer: MIN: %.2f, AVG: %.2f, MAX: %.2f\n"
+        + " LocalTimer: MIN: %.2f, AVG: %.2f, MAX: %.2f\n"
+        + " Counter: %d\n"
+        + " CacheSize: Min: %s, AVG: %.2f, Max: %s\n"
+        + " Cache: Miss: %s, Hit: %s\n"
+        + " Cutoffs: %d, FirstMove: %.1f%%, Research: %d, AspirationResearch: %d",
+      globalTimer.getMinTime(),
+      globalTimer.getAvgTime(),
+      globalTimer.getMaxTime(),
+      perNodeTimer.getMinTime(),
+      perNodeTimer.getAvgTime(),
+      perNodeTimer.getMaxTime(),
+      nodesCounter.getCount(),
+      cacheHistogram.getMinValue(),
+      cacheHistogram.getAvgValue(),
+      cacheHistogram.getMaxValue(),
+      cacheMissCounter.getCount(),
+      cacheHitCounter.getCount(),
+      cutoffCounter.getCount(),
+      getFirstMoveCutoffRate() * 100,
+      researchCounter.getCount(),
+      aspirationResearchCounter.getCount()
+    );
+  }
+}
@@ -0,0 +1,68 @@
+package algorithms;
+
+/**
+ * When a search has to stop: a System.nanoTime() deadline, a number of nodes, a depth, or a stop requested by
+ * another thread. The search polls them as it goes, a stopped search returns the best move of its last completed
+ * iteration.
+ *
+ * The limits are kept by the caller and can be reused from one search to the other, stop() stays in effect until
+ * reset() is called.
+ */
+public class SearchLimits {
+
+  private long deadline = Long.MAX_VALUE;
+  private long maxNodes = Long.MAX_VALUE;
+  private int maxDepth = Integer.MAX_VALUE;
+  private volatile boolean stopped = false;
+
+  public long getDeadline() {
+    return deadline;
+  }
+
+  /**
+   * @param deadline System.nanoTime() by which the search has to return, Long.MAX_VALUE for none
+   */
+  public void setDeadline(long deadline) {
+    this.deadline = deadline;
+  }
+
+  public long getMaxNodes() {
+    return maxNodes;
+  }
+
+  public void setMaxNodes(long maxNodes) {
+    this.maxNodes = maxNodes;
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * @param maxDepth depth the search goes to at most, on top of the start depth of the engine
+   */
+  public void setMaxDepth(int maxDepth) {
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Ask the running search to stop, can be called from any thread
+   */
+  public void stop() {
+    stopped = true;
+  }
+
+  public boolean isStopped() {
+    return stopped;
+  }
+
+  /**
+   * Remove every limit
+   */
+  public void reset() {
+    deadline = Long.MAX_VALUE;
+    maxNodes = Long.MAX_VALUE;
+    maxDepth = Integer.MAX_VALUE;
+    stopped = false;
+  }
+}
@@ -0,0 +1,149 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Outcome of a search: the best move, its score and principal variation, and what the search cost.
+ *
+ * An engine fills the same result on every search, so searching does not allocate it. Copy what has to be kept before
+ * the next search.
+ */
+public class SearchResult {
+
+  private int bestMove = -1;
+  private int score;
+  private int depth;
+  private int[] principalVariation = new int[0];
+  private int principalVariationLength;
+  private long nodes;
+  private long cacheProbes;
+  private long cacheHits;
+  private long elapsedTime;
+  private boolean aborted;
+
+  /**
+   * The best move, -1 if the root has none
+   */
+  public int getBestMove() {
+    return bestMove;
+  }
+
+  /**
+   * Score of the root from the side to move, of the last completed iteration
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Whether the score is a win or a loss found by the search rather than a heuristic value
+   */
+  public boolean isMate() {
+    return Math.abs(score) >= SearchEngine.MATE_BOUND;
+  }
+
+  /**
+   * Number of plies to the end of the game when the score is a win or a loss
+   */
+  public int getMateDistance() {
+    return SearchEngine.MATE - Math.abs(score);
+  }
+
+  /**
+   * Depth of the last completed iteration
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * The moves expected from the root, starting with the best move. It stops early where the search used an exact
+   * value of the transposition table.
+   */
+  public int[] getPrincipalVariation() {
+    return Arrays.copyOf(principalVariation, principalVariationLength);
+  }
+
+  public int getPrincipalVariationLength() {
+    return principalVariationLength;
+  }
+
+  public int getPrincipalVariationMove(int ply) {
+    return principalVariation[ply];
+  }
+
+  public long getNodes() {
+    return nodes;
+  }
+
+  public long getCacheProbes() {
+    return cacheProbes;
+  }
+
+  public long getCacheHits() {
+    return cacheHits;
+  }
+
+  public double getCacheHitRate() {
+    return cacheProbes == 0 ? 0 : (double) cacheHits / cacheProbes;
+  }
+
+  /**
+   * Duration of the search in nanoseconds
+   */
+  public long getElapsedTime() {
+    return elapsedTime;
+  }
+
+  public double getNodesPerSecond() {
+    return elapsedTime == 0 ? 0 : nodes * 1e9 / elapsedTime;
+  }
+
+  /**
+   * Whether the search was stopped by its limits
+   */
+  public boolean isAborted() {
+    return aborted;
+  }
+
+  void set(int bestMove, int score, int depth, long nodes, long cacheProbes, long cacheHits, long elapsedTime,
+           boolean aborted) {
+    this.bestMove = bestMove;
+    this.score = score;
+    this.depth = depth;
+    this.nodes = nodes;
+    this.cacheProbes = cacheProbes;
+    this.cacheHits = cacheHits;
+    this.elapsedTime = elapsedTime;
+    this.aborted = aborted;
+  }
+
+  void setPrincipalVariation(int[] moves, int length) {
+    if (principalVariation.length < length) {
+      principalVariation = new int[Math.max(length, 2 * principalVariation.length)];
+    }
+    System.arraycopy(moves, 0, principalVariation, 0, length);
+    principalVariationLength = length;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder pv = new StringBuilder();
+    for (int i = 0; i < principalVariationLength; i++) {
+      pv.append(i == 0 ? "" : " ").append(principalVariation[i]);
+    }
+    return String.format(
+      "Move: %d, Score: %s, Depth: %d%s, PV: [%s]\n"
+        + " Nodes: %d, Time: %.2fms, Nodes/s: %.0f, CacheHitRate: %.1f%%",
+      bestMove,
+      isMate() ? (score > 0 ? "win in " : "loss in ") + getMateDistance() : String.valueOf(score),
+      depth,
+      aborted ? " (stopped)" : "",
+      pv,
+      nodes,
+      elapsedTime / 1e6,
+      getNodesPerSecond(),
+      getCacheHitRate() * 100
+    );
+  }
+}
@@ -0,0 +1,58 @@
+package algorithms;
+
+/**
+ * Splits the time of a game among its moves. A move gets an equal share of the time left for the moves still to play,
+ * at most the time a single move is allowed, less a safety margin for the time spent out of the search.
+ *
+ * Times are System.nanoTime() values and durations in nanoseconds.
+ */
+public class TimeManager {
+
+  private final long moveTime;
+  private final long safetyMargin;
+  private long remainingTime;
+  private long moveStartTime;
+
+  /**
+   * @param gameTime time for all the moves of the game, Long.MAX_VALUE when only the moves are on a clock
+   * @param moveTime time allowed for a single move
+   * @param safetyMargin time kept out of every move
+   */
+  public TimeManager(long gameTime, long moveTime, long safetyMargin) {
+    this.remainingTime = gameTime;
+    this.moveTime = moveTime;
+    this.safetyMargin = safetyMargin;
+  }
+
+  public long getRemainingTime() {
+    return remainingTime;
+  }
+
+  /**
+   * Start the clock of a move and return its deadline
+   *
+   * @param startTime when the move started, usually when the input of the opponent arrived
+   * @param movesLeft number of moves still to play, this one included
+   */
+  public long startMove(long startTime, int movesLeft) {
+    return startMove(startTime, movesLeft, moveTime);
+  }
+
+  /**
+   * Same as startMove(long, int), for a move allowed another time than the others, like the first one
+   */
+  public long startMove(long startTime, int movesLeft, long moveTime) {
+    moveStartTime = startTime;
+    long share = remainingTime / Math.max(1, movesLeft);
+    return startTime + Math.max(0, Math.min(share, moveTime) - safetyMargin);
+  }
+
+  /**
+   * Stop the clock of the move, its time is taken from the time of the game
+   */
+  public void endMove(long endTime) {
+    if (remainingTime != Long.MAX_VALUE) {
+      remainingTime = Math.max(0, remainingTime - (endTime - moveStartTime));
+    }
+  }
+}
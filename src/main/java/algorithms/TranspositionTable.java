@@ -0,0 +1,189 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Values of the nodes already searched, by node key, in a fixed amount of memory.
+ *
+ * The table is a power of two number of buckets in a single long[]. A bucket holds two entries: the first keeps the
+ * deepest search of the keys falling in the bucket, the second always takes the latest one. An entry is two longs,
+ * the key xor the packed data, and the packed data:
+ *
+ *   bits  0-31  score
+ *   bits 32-47  best move + 1, 0 if unknown
+ *   bits 48-55  depth
+ *   bits 56-57  flag, 0 for an empty entry
+ *   bits 58-63  generation
+ *
+ * probe returns the packed data, read with the static getters, so neither probing nor storing allocates.
+ *
+ * The table lives as long as its engine. Every search starts a new generation, entries neither stored nor found
+ * since then are stale and are the first to be replaced, while they can still guide the search of their node.
+ *
+ * Threads searching in parallel share the table without locking it. An entry read while another thread writes it
+ * can mix the key of one write with the data of the other, the key then no longer matches and the entry is ignored.
+ * size() is only approximate when threads store at the same time.
+ */
+public class TranspositionTable {
+
+  private static final int ENTRY_LONGS = 2;
+  private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+  /**
+   * Deepest search an entry can record, a search going deeper would never find an entry deep enough to use
+   */
+  public static final int MAX_DEPTH = 0xFF;
+  private static final int GENERATIONS = 64;
+  private static final CacheFlag[] FLAGS = CacheFlag.values();
+
+  private final long[] entries;
+  private final long bucketMask;
+  private int size = 0;
+  private int generation = 0;
+
+  /**
+   * @param sizeInMB memory used by the table, rounded down to a power of two
+   */
+  public TranspositionTable(int sizeInMB) {
+    long buckets = Long.highestOneBit(Math.max(1, ((long) sizeInMB << 20) / (BUCKET_LONGS * Long.BYTES)));
+    // a java array can not hold more than 2^31 longs
+    buckets = Math.min(buckets, 1L << 29);
+    entries = new long[(int) buckets * BUCKET_LONGS];
+    bucketMask = buckets - 1;
+  }
+
+  /**
+   * Start a new generation, the entries of the previous searches become stale
+   */
+  public void newSearch() {
+    generation = (generation + 1) % GENERATIONS;
+  }
+
+  public int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Return the packed data stored for the key, or 0 if there is none. The entry found belongs to the current
+   * generation again.
+   */
+  public long probe(long key) {
+    int bucket = (int) (key & bucketMask) * BUCKET_LONGS;
+    long data = read(bucket, key);
+    if (data != 0) {
+      return data;
+    }
+    return read(bucket + ENTRY_LONGS, key);
+  }
+
+  /**
+   * Return the data of the entry in the slot if it belongs to the key, refreshing its generation, 0 otherwise
+   */
+  private long read(int slot, long key) {
+    // each long is read once, the check applies to the pair read
+    long data = entries[slot + 1];
+    if (data == 0 || (entries[slot] ^ data) != key) {
+      return 0;
+    }
+    if (getGeneration(data) != generation) {
+      data = data & ~(-1L << 58) | (long) generation << 58;
+      write(slot, key, data);
+    }
+    return data;
+  }
+
+  /**
+   * @param depth depth the node was searched to
+   * @param score value of the node, exact or bound as told by the flag
+   * @param move best move of the node, -1 if unknown
+   */
+  public void store(long key, int depth, int score, CacheFlag flag, int move) {
+    int bucket = (int) (key & bucketMask) * BUCKET_LONGS;
+    if (flag != CacheFlag.EXACT) {
+      // a zero window search finds the value of a node as a lower then an upper bound, or the other way round
+      flag = combineBounds(read(bucket, key), depth, score, flag);
+      flag = combineBounds(read(bucket + ENTRY_LONGS, key), depth, score, flag);
+    }
+    long data = (score & 0xFFFFFFFFL)
+      | (long) ((move + 1) & 0xFFFF) << 32
+      | (long) Math.min(depth, MAX_DEPTH) << 48
+      | (long) (flag.ordinal() + 1) << 56
+      | (long) generation << 58;
+    long deepest = entries[bucket + 1];
+    long deepestKey = entries[bucket] ^ deepest;
+    boolean stale = deepest == 0 || getGeneration(deepest) != generation;
+    int slot = bucket + ENTRY_LONGS;
+    if (deepestKey == key || stale || depth >= getDepth(deepest)) {
+      if (deepestKey != key && !stale) {
+        // the entry losing the depth-preferred slot is still the latest one of its key
+        write(bucket + ENTRY_LONGS, deepestKey, deepest);
+      }
+      slot = bucket;
+    }
+    write(slot, key, data);
+  }
+
+  /**
+   * EXACT when the entry holds the opposite bound of the same depth and score, the flag given otherwise
+   */
+  private static CacheFlag combineBounds(long entry, int depth, int score, CacheFlag flag) {
+    if (entry != 0 && getScore(entry) == score && getDepth(entry) == Math.min(depth, MAX_DEPTH)
+      && getFlag(entry) != CacheFlag.EXACT && getFlag(entry) != flag) {
+      return CacheFlag.EXACT;
+    }
+    return flag;
+  }
+
+  private void write(int slot, long key, long data) {
+    if (entries[slot + 1] == 0) {
+      size++;
+    }
+    entries[slot] = key ^ data;
+    entries[slot + 1] = data;
+  }
+
+  public static int getScore(long data) {
+    return (int) data;
+  }
+
+  public static int getMove(long data) {
+    return (int) (data >>> 32 & 0xFFFF) - 1;
+  }
+
+  public static int getDepth(long data) {
+    return (int) (data >>> 48 & MAX_DEPTH);
+  }
+
+  public static CacheFlag getFlag(long data) {
+    return FLAGS[(int) (data >>> 56 & 3) - 1];
+  }
+
+  public static int getGeneration(long data) {
+    return (int) (data >>> 58);
+  }
+
+  /**
+   * Number of entries the table can hold
+   */
+  public int capacity() {
+    return entries.length / ENTRY_LONGS;
+  }
+
+  /**
+   * Number of entries in use
+   */
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    Arrays.fill(entries, 0);
+    size = 0;
+    generation = 0;
+  }
+
+  public static enum CacheFlag {
+    EXACT,
+    LOWERBOUND,
+    UPPERBOUND
+  }
+}
@@ -0,0 +1,23 @@
+package algorithms;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Negamax with alpha beta pruning, to a fixed depth, where every node deep enough searches its first move alone and
+ * then its other moves in parallel on the threads of the pool.
+ */
+public class YoungBrothersWaitAlgorithm<N extends IMoveNode> extends SearchEngine<N> {
+
+  /**
+   *
+   * @param useCaching if set to true, we will cache previously visited nodes
+   * @param startDepth Specify the maximal depth to explore
+   * @param pool threads sharing the search, not shut down by the engine
+   */
+  public YoungBrothersWaitAlgorithm(boolean useCaching, int startDepth, ForkJoinPool pool) {
+    super(Pruning.ALPHA_BETA, Deepening.NONE, useCaching, startDepth);
+    setMoveOrdering(new KillerHistoryOrdering());
+    setPool(pool);
+    setParallelism(Parallelism.YBWC);
+  }
+}
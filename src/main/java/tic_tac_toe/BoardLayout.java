@@ -0,0 +1,153 @@
+package tic_tac_toe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed tables of a width x height board where winLength stones in a row win.
+ *
+ * The cell (x, y) has the index x * height + y. A window is any segment of winLength cells along a row, a column
+ * or a diagonal, every game of the same dimensions shares the same layout.
+ */
+class BoardLayout {
+
+  private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+  private static final Map<Long, BoardLayout> layouts = new ConcurrentHashMap<>();
+
+  final int width;
+  final int height;
+  final int winLength;
+  final int cellsCount;
+  final int wordsCount;
+  /**
+   * Bits of the last word which are cells of the board
+   */
+  final long lastWordMask;
+  /**
+   * The cells of every window
+   */
+  final int[][] windowCells;
+  /**
+   * The windows every cell belongs to
+   */
+  final int[][] cellWindows;
+  /**
+   * Zobrist keys of a stone on every cell, X at 2 * cell and O at 2 * cell + 1
+   */
+  final long[] zobristKeys;
+  /**
+   * Zobrist key toggled on every stone added or removed, it tells apart the side to move
+   */
+  final long sideToMoveKey;
+  /**
+   * Every symmetry of the board as a permutation of the cells, the identity first. Square boards have 8 of them
+   * (rotations and reflections), rectangular ones 4.
+   */
+  final int[][] symmetries;
+  /**
+   * Inverse permutation of every symmetry, in the same order
+   */
+  final int[][] inverseSymmetries;
+
+  private BoardLayout(int width, int height, int winLength) {
+    this.width = width;
+    this.height = height;
+    this.winLength = winLength;
+    this.cellsCount = width * height;
+    this.wordsCount = (cellsCount + 63) / 64;
+    this.lastWordMask = cellsCount % 64 == 0 ? -1L : (1L << cellsCount) - 1;
+
+    List<int[]> windows = new ArrayList<>();
+    for (int[] direction : DIRECTIONS) {
+      for (int x = 0; x < width; x++) {
+        for (int y = 0; y < height; y++) {
+          int endX = x + direction[0] * (winLength - 1);
+          int endY = y + direction[1] * (winLength - 1);
+          if (endX < 0 || endX >= width || endY < 0 || endY >= height) {
+            continue;
+          }
+          int[] cells = new int[winLength];
+          for (int i = 0; i < winLength; i++) {
+            cells[i] = cellIndex(x + direction[0] * i, y + direction[1] * i);
+          }
+          windows.add(cells);
+        }
+      }
+    }
+    windowCells = windows.toArray(new int[windows.size()][]);
+
+    int[] windowsPerCell = new int[cellsCount];
+    for (int[] cells : windowCells) {
+      for (int cell : cells) {
+        windowsPerCell[cell]++;
+      }
+    }
+    cellWindows = new int[cellsCount][];
+    for (int cell = 0; cell < cellsCount; cell++) {
+      cellWindows[cell] = new int[windowsPerCell[cell]];
+      windowsPerCell[cell] = 0;
+    }
+    for (int window = 0; window < windowCells.length; window++) {
+      for (int cell : windowCells[window]) {
+        cellWindows[cell][windowsPerCell[cell]++] = window;
+      }
+    }
+
+    // seeded so that keys are stable from one run to the other
+    Random random = new Random(((long) width << 42) | ((long) height << 21) | winLength);
+    zobristKeys = new long[2 * cellsCount];
+    for (int i = 0; i < zobristKeys.length; i++) {
+      zobristKeys[i] = random.nextLong();
+    }
+    sideToMoveKey = random.nextLong();
+
+    List<int[]> permutations = new ArrayList<>();
+    for (int transpose = 0; transpose < (width == height ? 2 : 1); transpose++) {
+      for (int flipX = 0; flipX < 2; flipX++) {
+        for (int flipY = 0; flipY < 2; flipY++) {
+          int[] permutation = new int[cellsCount];
+          for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+              int newX = transpose == 1 ? y : x;
+              int newY = transpose == 1 ? x : y;
+              newX = flipX == 1 ? width - 1 - newX : newX;
+              newY = flipY == 1 ? height - 1 - newY : newY;
+              permutation[cellIndex(x, y)] = cellIndex(newX, newY);
+            }
+          }
+          permutations.add(permutation);
+        }
+      }
+    }
+    symmetries = permutations.toArray(new int[permutations.size()][]);
+    inverseSymmetries = new int[symmetries.length][cellsCount];
+    for (int symmetry = 0; symmetry < symmetries.length; symmetry++) {
+      for (int cell = 0; cell < cellsCount; cell++) {
+        inverseSymmetries[symmetry][symmetries[symmetry][cell]] = cell;
+      }
+    }
+  }
+
+  static BoardLayout of(int width, int height, int winLength) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException(String.format("Invalid board size %dx%d", width, height));
+    }
+    if (winLength <= 0 || winLength > Math.max(width, height)) {
+      throw new IllegalArgumentException(
+        String.format("Invalid win length %d for a %dx%d board", winLength, width, height));
+    }
+    long key = ((long) width << 42) | ((long) height << 21) | winLength;
+    return layouts.computeIfAbsent(key, k -> new BoardLayout(width, height, winLength));
+  }
+
+  int cellIndex(int x, int y) {
+    return x * height + y;
+  }
+
+  int windowsCount() {
+    return windowCells.length;
+  }
+}
@@ -0,0 +1,129 @@
+package tic_tac_toe;
+
+import algorithms.TimeManager;
+import com.google.inject.Guice;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import tic_tac_toe.players.IterativeDeepeningPlayer;
+import utils.InputParser;
+
+/**
+ * Plays a tic-tac-toe game against the CodinGame referee.
+ *
+ * Every turn the referee sends the last move of the opponent as "row col" (-1 -1 on the first turn), the number of
+ * valid moves and the valid moves, and waits for our move as "row col". The referee allows 1s for the first turn and
+ * 100ms for the next ones, counted from the time it sent the turn, so the clock of the player starts when the input
+ * arrives. A move later than that loses the game, the player is given a deadline its search stops at.
+ */
+public class CodinGameBot {
+
+    static final long FIRST_TURN_TIME = 1000000000L;
+    static final long TURN_TIME = 100000000L;
+    // left for writing the move and for the delays of the referee
+    static final long SAFETY_MARGIN = 15000000L;
+
+    private final Player player;
+    private final Game game;
+    private final InputParser parser;
+    private final OutputStream output;
+    private final byte[] line = new byte[24];
+    private final TimeManager timeManager = new TimeManager(Long.MAX_VALUE, TURN_TIME, SAFETY_MARGIN);
+    private long turnStartTime;
+
+    public CodinGameBot(Player player, InputStream input, OutputStream output) {
+        this(player, new Game(), input, output);
+    }
+
+    /**
+     * @param game empty game of the dimensions played by the referee, it follows the moves of both sides
+     */
+    public CodinGameBot(Player player, Game game, InputStream input, OutputStream output) {
+        this.player = player;
+        this.game = game;
+        this.parser = new InputParser(input);
+        this.output = output;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * System.nanoTime() when the input of the current turn arrived
+     */
+    public long getTurnStartTime() {
+        return turnStartTime;
+    }
+
+    /**
+     * Play turns until the referee closes the input
+     */
+    public void run() throws IOException {
+        boolean firstTurn = true;
+        while (true) {
+            int opponentRow;
+            try {
+                opponentRow = parser.nextInt();
+            } catch (EOFException e) {
+                return;
+            }
+            turnStartTime = parser.getLastReadTime();
+            int opponentCol = parser.nextInt();
+            // the valid moves are the empty cells, the game already knows them
+            int validMovesCount = parser.nextInt();
+            for (int i = 0; i < 2 * validMovesCount; i++) {
+                parser.nextInt();
+            }
+
+            if (firstTurn) {
+                player.setSide(opponentRow < 0 ? Game.Side.X : Game.Side.O);
+            }
+            if (opponentRow >= 0) {
+                game.playTurn(game.toMove(opponentCol, opponentRow));
+            }
+            int movesLeft = (game.getWidth() * game.getHeight() - game.getTotalCount() + 1) / 2;
+            player.setDeadline(firstTurn
+              ? timeManager.startMove(turnStartTime, movesLeft, FIRST_TURN_TIME)
+              : timeManager.startMove(turnStartTime, movesLeft));
+            int move = player.nextMove(game);
+            game.playTurn(move);
+            writeMove(game.getMoveY(move), game.getMoveX(move));
+            timeManager.endMove(System.nanoTime());
+            firstTurn = false;
+        }
+    }
+
+    private void writeMove(int row, int col) throws IOException {
+        int length = writeInt(row, 0);
+        line[length++] = ' ';
+        length = writeInt(col, length);
+        line[length++] = '\n';
+        output.write(line, 0, length);
+        output.flush();
+    }
+
+    private int writeInt(int value, int offset) {
+        int digits = 1;
+        for (int rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            line[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
+    /**
+     * Arguments: the class of the player, IterativeDeepeningPlayer by default as it always has a move ready
+     */
+    public static void main(String[] args) throws Exception {
+        Class<? extends Player> playerClass = args.length > 0
+          ? Class.forName(args[0]).asSubclass(Player.class)
+          : IterativeDeepeningPlayer.class;
+        Player player = Guice.createInjector().getInstance(playerClass);
+        new CodinGameBot(player, System.in, System.out).run();
+    }
+}
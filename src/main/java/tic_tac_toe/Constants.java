@@ -1,7 +1,17 @@
 package tic_tac_toe;
 
+import algorithms.IMoveNode;
+
 public class Constants {
 
   public final static int MAX_DEPTH = 9;
   public final static boolean USE_CACHING = true;
+  /**
+   * Playouts of a Monte Carlo search when its player is not on a clock
+   */
+  public final static int MCTS_PLAYOUTS = 20000;
+  /**
+   * Utility of a won game, it must stay above any heuristic value of an undetermined game
+   */
+  public final static int WIN_UTILITY = IMoveNode.WIN_UTILITY;
 }
@@ -1,45 +1,97 @@
 package tic_tac_toe;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class Game {
 
     public static final int BOARD_SIZE    = 3;
     static final String X_SYMBOL="X";
     static final String O_SYMBOL="O";
     static final String NEUTRAL_SYMBOL=".";
+    private final BoardLayout layout;
     private int hashValue = 0;
     private boolean invalidateHash = false;
     private Outcome outcome = Outcome.UNDETERMINED;
     private boolean invalidateOutcome = false;
-    private Side[][] cells = new Side[BOARD_SIZE][BOARD_SIZE];
-    private int[] rowsSums = new int[Game.BOARD_SIZE];
-    private int[] colsSums = new int[Game.BOARD_SIZE];
-    private int firstDiagSum = 0;
-    private int secondDiagSum = 0;
+    // outcome before every move played with playTurn, restored by undoTurn
+    private final Outcome[] playedOutcomes;
+    private int playedCount = 0;
+    // one bit per cell and per side, see BoardLayout for the index of a cell
+    private final long[] xBits;
+    private final long[] oBits;
+    private int totalCount = 0;
+    // zobrist key of the position seen through every symmetry of the board, the identity first. They are updated
+    // on every stone added or removed
+    private final long[] keys;
+    // stones of each side (X then O) in every window
+    private final int[][] windowCounts;
+    // number of windows holding a given number of stones of one side and none of the other
+    private final int[][] openLines;
+    // canonical keys of the moves kept by getDistinctMoves, so that it does not allocate
+    private final long[] distinctKeys;
 
   public int getTotalCount() {
     return totalCount;
   }
 
-  private int totalCount = 0;
-
     public Game () {
-        for (int y = 0; y < Game.BOARD_SIZE; y++) {
-            for (int x = 0; x < Game.BOARD_SIZE; x++) {
-                cells[x][y] = Side.NEUTRAL;
-            }
-        }
+        this(BOARD_SIZE, BOARD_SIZE, BOARD_SIZE);
+    }
+
+    /**
+     *
+     * @param width number of columns
+     * @param height number of rows
+     * @param winLength number of aligned stones needed to win
+     */
+    public Game(int width, int height, int winLength) {
+        layout = BoardLayout.of(width, height, winLength);
+        xBits = new long[layout.wordsCount];
+        oBits = new long[layout.wordsCount];
+        keys = new long[layout.symmetries.length];
+        windowCounts = new int[2][layout.windowsCount()];
+        openLines = new int[2][winLength + 1];
+        openLines[0][0] = layout.windowsCount();
+        openLines[1][0] = layout.windowsCount();
+        playedOutcomes = new Outcome[layout.cellsCount];
+        distinctKeys = new long[layout.cellsCount];
+    }
+
+    /**
+     * Independent copy of the game, moves played on one do not show on the other
+     */
+    public Game(Game other) {
+        layout = other.layout;
+        xBits = other.xBits.clone();
+        oBits = other.oBits.clone();
+        totalCount = other.totalCount;
+        keys = other.keys.clone();
+        windowCounts = new int[][]{other.windowCounts[0].clone(), other.windowCounts[1].clone()};
+        openLines = new int[][]{other.openLines[0].clone(), other.openLines[1].clone()};
+        outcome = other.outcome;
+        invalidateOutcome = other.invalidateOutcome;
+        hashValue = other.hashValue;
+        invalidateHash = other.invalidateHash;
+        playedOutcomes = other.playedOutcomes.clone();
+        playedCount = other.playedCount;
+        distinctKeys = new long[layout.cellsCount];
     }
 
     public static Game fromString(String str){
-        Game result = new Game();
-        int index = 0;
-        for (int y = 0; y < Game.BOARD_SIZE; y++) {
-            for (int x = 0; x < Game.BOARD_SIZE; x++) {
-                Side s = Side.fromString(Character.toString(str.charAt(index)));
+        String[] rows = str.split(" ")[0].split("\\|");
+        return fromString(str, Math.min(rows[0].length(), rows.length));
+    }
+
+    public static Game fromString(String str, int winLength){
+        String[] rows = str.split(" ")[0].split("\\|");
+        Game result = new Game(rows[0].length(), rows.length, winLength);
+        for (int y = 0; y < result.getHeight(); y++) {
+            for (int x = 0; x < result.getWidth(); x++) {
+                Side s = Side.fromString(Character.toString(rows[y].charAt(x)));
                 result.setCell(x, y, s);
-                index ++; // next char
             }
-            index ++; // skip col separator
         }
         return result;
     }
@@ -61,49 +113,284 @@ public class Game {
         return result;
     }
 
+    public static Game fromSnapshot(GameSnapshot snapshot){
+        BoardLayout layout = snapshot.getLayout();
+        Game result = new Game(layout.width, layout.height, layout.winLength);
+        for (int word = 0; word < layout.wordsCount; word++) {
+            for (long bits = snapshot.getXBits(word); bits != 0; bits &= bits - 1) {
+                result.setCell(64 * word + Long.numberOfTrailingZeros(bits), Side.X);
+            }
+            for (long bits = snapshot.getOBits(word); bits != 0; bits &= bits - 1) {
+                result.setCell(64 * word + Long.numberOfTrailingZeros(bits), Side.O);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Immutable copy of the current position
+     */
+    public GameSnapshot snapshot() {
+        return new GameSnapshot(layout, xBits.clone(), oBits.clone(), getGameOutcome());
+    }
+
+    public int getWidth() {
+        return layout.width;
+    }
+
+    public int getHeight() {
+        return layout.height;
+    }
+
+    public int getWinLength() {
+        return layout.winLength;
+    }
+
+    /**
+     * Number of windows of winLength cells holding exactly the given number of stones of the side and none of
+     * the other side
+     */
+    public int getOpenLines(Side side, int stones) {
+        return openLines[side.ordinal() - 1][stones];
+    }
+
+    /**
+     * 64 bits zobrist key of the position and side to move. It is updated incrementally, so it is cheap to call on
+     * every node of a search.
+     */
+    public long getKey() {
+        return keys[0];
+    }
+
+    /**
+     * Same as getKey but shared by all the positions equivalent through a rotation or a reflection of the board
+     */
+    public long getCanonicalKey() {
+        return keys[getCanonicalSymmetry()];
+    }
+
+    /**
+     * The move seen through the symmetry giving the canonical key, so that the positions sharing the canonical key
+     * also share their moves: the same move of the canonical position is the matching move of each of them
+     */
+    public int toCanonicalMove(int move) {
+        return layout.symmetries[getCanonicalSymmetry()][move];
+    }
+
+    /**
+     * Inverse of toCanonicalMove, the move of this position for a move of the canonical one
+     */
+    public int fromCanonicalMove(int move) {
+        return layout.inverseSymmetries[getCanonicalSymmetry()][move];
+    }
+
+    private int getCanonicalSymmetry() {
+        int canonical = 0;
+        for (int symmetry = 1; symmetry < keys.length; symmetry++) {
+            if (keys[symmetry] < keys[canonical]) {
+                canonical = symmetry;
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * Write the moves (see playTurn(int)) of all the empty cells into moves, in x then y order, and return how many
+     * were written. It does not allocate anything.
+     *
+     * @param moves buffer of at least width * height moves
+     */
+    public int getPossibleMoves(int[] moves) {
+        int count = 0;
+        for (int word = 0; word < layout.wordsCount; word++) {
+            long empty = ~(xBits[word] | oBits[word]);
+            if (word == layout.wordsCount - 1) {
+                empty &= layout.lastWordMask;
+            }
+            while (empty != 0) {
+                moves[count++] = (word << 6) + Long.numberOfTrailingZeros(empty);
+                empty &= empty - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Same as getPossibleMoves, keeping only the first of the moves leading to equivalent positions through a
+     * rotation or a reflection of the board. On an empty 3x3 board, that is a corner, an edge and the center. It does
+     * not allocate anything either.
+     *
+     * @param moves buffer of at least width * height moves
+     */
+    public int getDistinctMoves(int[] moves) {
+        int movesCount = getPossibleMoves(moves);
+        long[] seenKeys = distinctKeys;
+        int count = 0;
+        int own = getCurrentSide().ordinal() - 1;
+        for (int i = 0; i < movesCount; i++) {
+            int cell = moves[i];
+            // canonical key of the position after the move, without playing it
+            long canonical = Long.MAX_VALUE;
+            for (int symmetry = 0; symmetry < keys.length; symmetry++) {
+                long key = keys[symmetry] ^ layout.sideToMoveKey
+                  ^ layout.zobristKeys[2 * layout.symmetries[symmetry][cell] + own];
+                canonical = Math.min(canonical, key);
+            }
+            boolean seen = false;
+            for (int j = 0; j < count && !seen; j++) {
+                seen = seenKeys[j] == canonical;
+            }
+            if (!seen) {
+                seenKeys[count] = canonical;
+                moves[count++] = cell;
+            }
+        }
+        return count;
+    }
+
+    public List<Point> getDistinctMoves() {
+        int[] moves = new int[layout.cellsCount];
+        int count = getDistinctMoves(moves);
+        List<Point> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(toPoint(moves[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Encode the move on the cell of the point, see playTurn(int)
+     */
+    public int toMove(Point p) {
+        return layout.cellIndex(p.x, p.y);
+    }
+
+    public int toMove(int x, int y) {
+        return layout.cellIndex(x, y);
+    }
+
+    public Point toPoint(int move) {
+        return new Point(getMoveX(move), getMoveY(move));
+    }
+
+    public int getMoveX(int move) {
+        return move / layout.height;
+    }
+
+    public int getMoveY(int move) {
+        return move % layout.height;
+    }
+
     public void setCell(int x, int y){
         setCell(x, y, getCurrentSide());
     }
 
     public void setCell(int x, int y, Side side){
-        if(cells[x][y] == Side.NEUTRAL && side != Side.NEUTRAL){
-            this.totalCount++;
-        }
-        if(cells[x][y] != Side.NEUTRAL && side == Side.NEUTRAL){
-            this.totalCount--;
+        setCell(layout.cellIndex(x, y), side);
+    }
+
+    private void setCell(int cell, Side side){
+        Side previous = getCell(cell);
+        if (previous == side) {
+            return;
         }
-        int diff = side.toValue() - cells[x][y].toValue();
-        colsSums[x] += diff;
-        rowsSums[y] += diff;
-        if(x == y){
-            firstDiagSum += diff;
+        if (previous != Side.NEUTRAL) {
+            removeStone(cell, previous);
+            // removing a stone never creates a line, a game still undetermined stays undetermined
+            if (outcome != Outcome.UNDETERMINED) {
+                invalidateOutcome = true;
+            }
         }
-        if(x + y == BOARD_SIZE - 1){
-            secondDiagSum += diff;
+        if (side != Side.NEUTRAL) {
+            addStone(cell, side);
         }
-        cells[x][y] = side;
+        // the board is edited, the moves played so far can no longer be taken back
+        playedCount = 0;
         invalidateHash = true;
-        invalidateOutcome = true;
+    }
 
+    private void addStone(int cell, Side side){
+        (side == Side.X ? xBits : oBits)[cell >>> 6] |= 1L << cell;
+        totalCount++;
+        int own = side.ordinal() - 1;
+        for (int symmetry = 0; symmetry < keys.length; symmetry++) {
+            keys[symmetry] ^= layout.zobristKeys[2 * layout.symmetries[symmetry][cell] + own] ^ layout.sideToMoveKey;
+        }
+        int other = 1 - own;
+        int[] ownCounts = windowCounts[own];
+        int[] otherCounts = windowCounts[other];
+        boolean completed = false;
+        for (int window : layout.cellWindows[cell]) {
+            int ownCount = ownCounts[window];
+            int otherCount = otherCounts[window];
+            if (otherCount == 0) {
+                openLines[own][ownCount]--;
+                openLines[own][ownCount + 1]++;
+            }
+            if (ownCount == 0) {
+                openLines[other][otherCount]--;
+            }
+            ownCounts[window] = ownCount + 1;
+            completed |= ownCount + 1 == layout.winLength;
+        }
+        // only the windows of the last move can hold a new line
+        if (invalidateOutcome) {
+            return;
+        }
+        if (outcome == Outcome.UNDETERMINED) {
+            if (completed) {
+                outcome = side == Side.X ? Outcome.X_WON : Outcome.O_WON;
+            } else if (isFull()) {
+                outcome = Outcome.DRAW;
+            }
+        } else if (completed) {
+            invalidateOutcome = true;
+        }
     }
 
-    public boolean isFull(){
-        for (int y = 0; y < Game.BOARD_SIZE; y++) {
-            for (int x = 0; x < Game.BOARD_SIZE; x++) {
-                if (cells[x][y] == Side.NEUTRAL) return false;
+    private void removeStone(int cell, Side side){
+        (side == Side.X ? xBits : oBits)[cell >>> 6] &= ~(1L << cell);
+        totalCount--;
+        int own = side.ordinal() - 1;
+        for (int symmetry = 0; symmetry < keys.length; symmetry++) {
+            keys[symmetry] ^= layout.zobristKeys[2 * layout.symmetries[symmetry][cell] + own] ^ layout.sideToMoveKey;
+        }
+        int other = 1 - own;
+        int[] ownCounts = windowCounts[own];
+        int[] otherCounts = windowCounts[other];
+        for (int window : layout.cellWindows[cell]) {
+            int ownCount = ownCounts[window];
+            int otherCount = otherCounts[window];
+            if (otherCount == 0) {
+                openLines[own][ownCount]--;
+                openLines[own][ownCount - 1]++;
+            }
+            if (ownCount == 1) {
+                openLines[other][otherCount]++;
             }
+            ownCounts[window] = ownCount - 1;
         }
-        return true;
+    }
+
+    public boolean isFull(){
+        return totalCount == layout.cellsCount;
     }
 
     public Side getCell(int x, int y){
-        return cells[x][y];
+        return getCell(layout.cellIndex(x, y));
+    }
+
+    private Side getCell(int cell){
+        long bit = 1L << cell;
+        if ((xBits[cell >>> 6] & bit) != 0) return Side.X;
+        if ((oBits[cell >>> 6] & bit) != 0) return Side.O;
+        return Side.NEUTRAL;
     }
 
     public void draw(){
         StringBuffer str = new StringBuffer();
-        for (int y = 0; y < Game.BOARD_SIZE; y++){
-            for (int x = 0; x < Game.BOARD_SIZE; x++){
+        for (int y = 0; y < getHeight(); y++){
+            for (int x = 0; x < getWidth(); x++){
                 str.append(this.getCell(x, y).toString());
             }
             str.append("\n");
@@ -120,7 +407,14 @@ public class Game {
 
     @Override
     public boolean equals(Object o) {
-        return o.hashCode() == this.hashCode();
+        if(o instanceof Game){
+            Game other = (Game) o;
+            return other.layout == this.layout
+              && Arrays.equals(other.xBits, this.xBits)
+              && Arrays.equals(other.oBits, this.oBits);
+        } else {
+            return false;
+        }
     }
 
     public Side getCurrentSide() {
@@ -140,39 +434,51 @@ public class Game {
     }
 
     public void playTurn(Point p){
-        this.setCell(p.x, p.y);
+        playTurn(toMove(p));
     }
 
-    private Outcome recomputeGameOutcome(){
-        for (int x = 0; x < Game.BOARD_SIZE; x++) {
-            if (colsSums[x] == Game.BOARD_SIZE) {
-                return Outcome.X_WON;
-            }
-            if (colsSums[x] == -Game.BOARD_SIZE) {
-                return Outcome.O_WON;
-            }
+    /**
+     * Play the current side on the empty cell of the encoded move, see toMove
+     */
+    public void playTurn(int move){
+        if (getCell(move) != Side.NEUTRAL) {
+            throw new IllegalArgumentException("Cell of move " + move + " is not empty");
         }
-        for (int y = 0; y < Game.BOARD_SIZE; y++) {
-            if (rowsSums[y] == Game.BOARD_SIZE) {
+        playedOutcomes[playedCount++] = getGameOutcome();
+        addStone(move, getCurrentSide());
+        invalidateHash = true;
+    }
+
+    public void undoTurn(Point p){
+        undoTurn(toMove(p));
+    }
+
+    /**
+     * Take back the last move played with playTurn, the outcome before the move is restored as is
+     */
+    public void undoTurn(int move){
+        if (playedCount == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        if (getCell(move) == Side.NEUTRAL) {
+            throw new IllegalArgumentException("Cell of move " + move + " is empty");
+        }
+        removeStone(move, getCell(move));
+        outcome = playedOutcomes[--playedCount];
+        invalidateOutcome = false;
+        invalidateHash = true;
+    }
+
+    private Outcome recomputeGameOutcome(){
+        for (int window = 0; window < layout.windowsCount(); window++) {
+            if (windowCounts[0][window] == layout.winLength) {
                 return Outcome.X_WON;
             }
-            if (rowsSums[y] == -Game.BOARD_SIZE) {
+            if (windowCounts[1][window] == layout.winLength) {
                 return Outcome.O_WON;
             }
         }
-        if (firstDiagSum == Game.BOARD_SIZE) {
-            return Outcome.X_WON;
-        }
-        if (firstDiagSum == -Game.BOARD_SIZE) {
-            return Outcome.O_WON;
-        }
-        if (secondDiagSum == Game.BOARD_SIZE) {
-            return Outcome.X_WON;
-        }
-        if (secondDiagSum == -Game.BOARD_SIZE) {
-            return Outcome.O_WON;
-        }
-        if (totalCount == (Game.BOARD_SIZE * Game.BOARD_SIZE)) {
+        if (isFull()) {
             return Outcome.DRAW;
         }
         return Outcome.UNDETERMINED;
@@ -189,44 +495,46 @@ public class Game {
     @Override
     public String toString() {
         StringBuffer buffer = new StringBuffer();
-        for (int y = 0; y < Game.BOARD_SIZE; y++){
-            for (int x = 0; x < Game.BOARD_SIZE; x++){
+        for (int y = 0; y < getHeight(); y++){
+            for (int x = 0; x < getWidth(); x++){
                 buffer.append(this.getCell(x, y).toString());
             }
-            if (y < Game.BOARD_SIZE - 1) buffer.append('|');
+            if (y < getHeight() - 1) buffer.append('|');
         }
         buffer.append(String.format(" [P:%s, W:%s]", this.getCurrentSide(), this.getGameOutcome()));
         return buffer.toString();
     }
 
 
-
+    /**
+     * Boards up to 16 cells are packed exactly with 2 bits per cell (see fromHash), larger boards mix all the cells
+     * bits and rely on equals to tell positions apart.
+     */
     @Override
     public int hashCode() {
-        if(true){
-            int off = 0;
-            int val = 0;
-            hashValue = 0;
-            for (int x = 0; x < Game.BOARD_SIZE; x++) {
-                for (int y = 0; y < Game.BOARD_SIZE; y++) {
-                    Side side = getCell(x, y);
-                    if (side == Side.X) {
-                        val = 1;
-                    }
-                    else if (side == Side.O) {
-                        val = 2;
-                    } else {
-                        val = 0;
-                    }
-                    hashValue |= val << off; // set the corresponding 2 bits
-                    off += 2; // increment offset by 2 since we are using 2 bits per square
-                }
+        if(invalidateHash){
+            if (layout.cellsCount <= 16) {
+                hashValue = spreadBits((int) xBits[0]) | (spreadBits((int) oBits[0]) << 1);
+            } else {
+                hashValue = 31 * Arrays.hashCode(xBits) + Arrays.hashCode(oBits);
             }
             invalidateHash = false;
         }
         return hashValue;
     }
 
+    /**
+     * Moves the 16 low bits of value to the even positions of the result
+     */
+    private static int spreadBits(int value){
+        value &= 0xFFFF;
+        value = (value | (value << 8)) & 0x00FF00FF;
+        value = (value | (value << 4)) & 0x0F0F0F0F;
+        value = (value | (value << 2)) & 0x33333333;
+        value = (value | (value << 1)) & 0x55555555;
+        return value;
+    }
+
 
     public static enum Side {
         NEUTRAL,
@@ -0,0 +1,151 @@
+package tic_tac_toe;
+
+import java.util.Arrays;
+import tic_tac_toe.Game.Outcome;
+import tic_tac_toe.Game.Side;
+
+/**
+ * Immutable copy of a Game, safe to share between threads or to keep as a map key.
+ *
+ * The stones are packed in one long per side and 64 cells, with the cell indexes of Game. The side to move follows
+ * from the number of stones and the outcome is captured when the snapshot is taken.
+ */
+public final class GameSnapshot {
+    private final BoardLayout layout;
+    private final long[] xBits;
+    private final long[] oBits;
+    private final Outcome outcome;
+
+    /**
+     * The arrays are kept, not copied
+     */
+    GameSnapshot(BoardLayout layout, long[] xBits, long[] oBits, Outcome outcome) {
+        this.layout = layout;
+        this.xBits = xBits;
+        this.oBits = oBits;
+        this.outcome = outcome;
+    }
+
+    public int getWidth() {
+        return layout.width;
+    }
+
+    public int getHeight() {
+        return layout.height;
+    }
+
+    public int getWinLength() {
+        return layout.winLength;
+    }
+
+    /**
+     * Number of longs the stones of a side are packed in, one per 64 cells
+     */
+    public int getWordsCount() {
+        return xBits.length;
+    }
+
+    /**
+     * Stones of X on the first 64 cells, the whole board for boards of at most 64 cells
+     */
+    public long getXBits() {
+        return xBits[0];
+    }
+
+    public long getOBits() {
+        return oBits[0];
+    }
+
+    /**
+     * Stones of X on the cells 64 * word to 64 * word + 63
+     */
+    public long getXBits(int word) {
+        return xBits[word];
+    }
+
+    public long getOBits(int word) {
+        return oBits[word];
+    }
+
+    /**
+     * Both sides packed in a single long. On boards of at most 32 cells every position has its own key, so it can
+     * stand alone as the key of a primitive table of snapshots of the same dimensions. Larger boards fold the two
+     * sides together, the table then also has to compare the stones.
+     */
+    public long getKey() {
+        if (layout.cellsCount <= 32) {
+            return xBits[0] | (oBits[0] << 32);
+        }
+        long key = 0;
+        for (int word = 0; word < xBits.length; word++) {
+            key = Long.rotateLeft(key, 17)
+              ^ xBits[word] * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(oBits[word] * 0xC2B2AE3D27D4EB4FL, 31);
+        }
+        return key ^ (key >>> 29);
+    }
+
+    public int getTotalCount() {
+        int count = 0;
+        for (int word = 0; word < xBits.length; word++) {
+            count += Long.bitCount(xBits[word]) + Long.bitCount(oBits[word]);
+        }
+        return count;
+    }
+
+    public Side getCell(int x, int y) {
+        int cell = layout.cellIndex(x, y);
+        long bit = 1L << cell;
+        if ((xBits[cell >>> 6] & bit) != 0) {
+            return Side.X;
+        }
+        if ((oBits[cell >>> 6] & bit) != 0) {
+            return Side.O;
+        }
+        return Side.NEUTRAL;
+    }
+
+    public Side getCurrentSide() {
+        return getTotalCount() % 2 == 0 ? Side.X : Side.O;
+    }
+
+    public Outcome getGameOutcome() {
+        return outcome;
+    }
+
+    public Game toGame() {
+        return Game.fromSnapshot(this);
+    }
+
+    BoardLayout getLayout() {
+        return layout;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof GameSnapshot) {
+            GameSnapshot other = (GameSnapshot) o;
+            return other.layout == this.layout && Arrays.equals(other.xBits, this.xBits)
+              && Arrays.equals(other.oBits, this.oBits);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(getKey());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int y = 0; y < getHeight(); y++) {
+            for (int x = 0; x < getWidth(); x++) {
+                builder.append(getCell(x, y).toString());
+            }
+            if (y < getHeight() - 1) builder.append('|');
+        }
+        builder.append(String.format(" [P:%s, W:%s]", getCurrentSide(), getGameOutcome()));
+        return builder.toString();
+    }
+}
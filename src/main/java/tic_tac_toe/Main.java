@@ -6,6 +6,7 @@ import algorithms.MiniMaxAlgorithm;
 import algorithms.NegaMaxAlgorithm;
 import algorithms.NegaMaxAlphaBetaAlgorithm;
 import algorithms.MTDAlgorithm;
+import algorithms.PVSAlgorithm;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -18,10 +19,12 @@ import java.util.Map;
 import tic_tac_toe.Simulator.SimulationResult;
 import tic_tac_toe.players.AlphaBetaPlayer;
 import tic_tac_toe.players.IterativeDeepeningPlayer;
+import tic_tac_toe.players.MctsPlayer;
 import tic_tac_toe.players.MiniMaxPlayer;
 import tic_tac_toe.players.NegaMaxPlayer;
 import tic_tac_toe.players.NegaMaxAlphaBetaPlayer;
 import tic_tac_toe.players.MTDPlayer;
+import tic_tac_toe.players.PVSPlayer;
 import utils.MetricRegistry;
 
 public class Main {
@@ -50,6 +53,8 @@ public class Main {
         allPlayers.add(NegaMaxPlayer.class);
         allPlayers.add(IterativeDeepeningPlayer.class);
         allPlayers.add(MTDPlayer.class);
+        allPlayers.add(PVSPlayer.class);
+        allPlayers.add(MctsPlayer.class);
         Map<Class<? extends Player>, Double> lost_rates = new HashMap<>();
         Map<Class<? extends Player>, Double> win_rates = new HashMap<>();
         Map<Class<? extends Player>, Double> draw_rates = new HashMap<>();
@@ -89,9 +94,10 @@ public class Main {
         allAlgorithms.add(NegaMaxAlgorithm.class);
         allAlgorithms.add(IterativeDeepeningAlgorithm.class);
         allAlgorithms.add(MTDAlgorithm.class);
+        allAlgorithms.add(PVSAlgorithm.class);
         MetricRegistry metricRegistry = MetricRegistry.getInstance();
 
-        for (String key: Arrays.asList("CacheHit", "CacheMiss", "computeBestAction", "computeBestActionPerNode")){
+        for (String key: Arrays.asList("Nodes", "CacheHit", "CacheMiss", "computeBestAction", "computeBestActionPerNode")){
             System.out.println("\n" + key + ":");
 
             Class bestAlgorithm = null;
@@ -103,6 +109,9 @@ public class Main {
                 double value = 0;
                 String prefix = c.getName();
                 switch (key) {
+                    case "Nodes":
+                        value = metricRegistry.getCounter(prefix + key).getCount();
+                        break;
                     case "CacheHit":
                         value = metricRegistry.getCounter(prefix + key).getCount();
                         break;
@@ -131,5 +140,12 @@ public class Main {
             System.out.println("Most: " + worstAlgorithm.getSimpleName() + " At " + mostValue );
             System.out.println("Average: " + (totalValue / allAlgorithms.size()));
         }
+
+        System.out.println("\nNodes relative to " + AlphaBetaAlgorithm.class.getSimpleName() + ":");
+        double alphaBetaNodes = metricRegistry.getCounter(AlphaBetaAlgorithm.class.getName() + "Nodes").getCount();
+        for (Class<?> c: allAlgorithms){
+            double nodes = metricRegistry.getCounter(c.getName() + "Nodes").getCount();
+            System.out.println(c.getSimpleName() + ": " + String.format("%.2f", nodes / alphaBetaNodes));
+        }
     }
 }
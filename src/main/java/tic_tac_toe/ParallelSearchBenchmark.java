@@ -0,0 +1,111 @@
+package tic_tac_toe;
+
+import algorithms.IterativeDeepeningAlgorithm;
+import algorithms.SearchEngine.Parallelism;
+import algorithms.SearchLimits;
+import algorithms.SearchResult;
+import java.util.concurrent.ForkJoinPool;
+import tic_tac_toe.players.GameState;
+
+/**
+ * Measures how the parallel searches scale with the threads, against the sequential search: the time taken to
+ * complete a given depth, the nodes searched to get there, and the depth completed within a given time, from a few
+ * positions of a large board.
+ *
+ * The speedup is the time to depth of the sequential search over the one of the parallel search, it can only grow up
+ * to the number of processors. The overhead is the number of nodes searched over the ones of the sequential search,
+ * the work lost to the searches started before knowing the values that would have pruned them.
+ */
+public class ParallelSearchBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+
+    /**
+     * Return the positions searched: the empty board and a few openings around its center
+     */
+    private static Game[] positions(int width, int height, int winLength) {
+        Game[] games = new Game[3];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = new Game(width, height, winLength);
+        }
+        games[1].playTurn(games[1].toMove(width / 2, height / 2));
+        games[2].playTurn(games[2].toMove(width / 2, height / 2));
+        games[2].playTurn(games[2].toMove(width / 2 + 1, height / 2));
+        return games;
+    }
+
+    /**
+     * The lazy SMP search runs on the calling thread and n - 1 helpers, the other ones on n threads of the pool
+     */
+    private static ForkJoinPool newPool(Parallelism parallelism, int threads) {
+        int poolThreads = parallelism == Parallelism.LAZY_SMP ? threads - 1 : threads;
+        return threads == 1 ? null : new ForkJoinPool(poolThreads);
+    }
+
+    private static IterativeDeepeningAlgorithm<GameState> newAlgorithm(int depth, Parallelism parallelism,
+                                                                       ForkJoinPool pool) {
+        IterativeDeepeningAlgorithm<GameState> algorithm = new IterativeDeepeningAlgorithm<>(true, depth);
+        algorithm.setPool(pool);
+        algorithm.setParallelism(parallelism);
+        return algorithm;
+    }
+
+    /**
+     * Arguments: width height winLength depth milliseconds, by default depth 6 and 500ms on a 7x7 board with lines of 5
+     */
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        int winLength = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 6;
+        long time = args.length > 4 ? Long.parseLong(args[4]) : 500;
+        Game[] games = positions(width, height, winLength);
+        System.out.println(Runtime.getRuntime().availableProcessors() + " processors");
+
+        double sequentialTime = 0;
+        double sequentialNodes = 0;
+        for (Parallelism parallelism : Parallelism.values()) {
+            System.out.println(String.format("\n%s:\n%7s %14s %9s %9s %14s %12s", parallelism, "Threads",
+              "Time to " + depth, "Speedup", "Overhead", "Depth in " + time + "ms", "Nodes/s"));
+            for (int threads : THREADS) {
+                ForkJoinPool pool = newPool(parallelism, threads);
+                try {
+                    // first run only warms up the JIT
+                    for (Game game : games) {
+                        newAlgorithm(depth, parallelism, pool).computeBestMove(new GameState(game));
+                    }
+                    long elapsed = 0;
+                    long nodes = 0;
+                    for (Game game : games) {
+                        SearchResult result = newAlgorithm(depth, parallelism, pool)
+                          .search(new GameState(game), new SearchLimits());
+                        elapsed += result.getElapsedTime();
+                        nodes += result.getNodes();
+                    }
+                    int depths = 0;
+                    for (Game game : games) {
+                        SearchLimits limits = new SearchLimits();
+                        limits.setDeadline(System.nanoTime() + time * 1000000);
+                        depths += newAlgorithm(Integer.MAX_VALUE, parallelism, pool)
+                          .search(new GameState(game), limits).getDepth();
+                    }
+                    if (threads == 1 && sequentialTime == 0) {
+                        sequentialTime = elapsed;
+                        sequentialNodes = nodes;
+                    }
+                    System.out.println(String.format("%7d %12.1fms %8.2fx %8.2fx %14.1f %12.0f",
+                      threads,
+                      elapsed / 1e6 / games.length,
+                      sequentialTime / elapsed,
+                      nodes / sequentialNodes,
+                      (double) depths / games.length,
+                      nodes * 1e9 / elapsed));
+                } finally {
+                    if (pool != null) {
+                        pool.shutdown();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package tic_tac_toe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import tic_tac_toe.Game.Outcome;
+
+/**
+ * Walks every line of play from a position down to a given depth, counting the positions met and the games ended
+ * at every ply.
+ *
+ * The counts of a board are known in advance (549946 positions for the whole 3x3 game), so they check the board
+ * representation, and the time taken measures playTurn / undoTurn / getGameOutcome / getPossibleMoves alone.
+ */
+public class Perft {
+
+    public static PerftResult perft(Game game, int depth) {
+        long start = System.nanoTime();
+        PerftResult result = new PerftResult(depth);
+        walk(game, 0, depth, newMoveBuffers(game, depth), result);
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Same as perft(game, depth), with the subtree of every move of the root walked as its own task of the pool
+     */
+    public static PerftResult perft(Game game, int depth, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        PerftResult result = new PerftResult(depth);
+        result.nodes[0]++;
+        if (game.getGameOutcome() != Outcome.UNDETERMINED) {
+            result.addOutcome(0, game.getGameOutcome());
+        } else if (depth > 0) {
+            int[] moves = new int[game.getWidth() * game.getHeight()];
+            int movesCount = game.getPossibleMoves(moves);
+            List<ForkJoinTask<PerftResult>> tasks = new ArrayList<>();
+            for (int i = 0; i < movesCount; i++) {
+                int move = moves[i];
+                tasks.add(pool.submit(() -> {
+                    Game child = new Game(game);
+                    child.playTurn(move);
+                    PerftResult childResult = new PerftResult(depth);
+                    walk(child, 1, depth, newMoveBuffers(child, depth), childResult);
+                    return childResult;
+                }));
+            }
+            for (ForkJoinTask<PerftResult> task : tasks) {
+                result.add(task.join());
+            }
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static int[][] newMoveBuffers(Game game, int depth) {
+        int cellsCount = game.getWidth() * game.getHeight();
+        // no line of play is longer than the number of empty cells
+        return new int[Math.min(depth, cellsCount - game.getTotalCount()) + 1][cellsCount];
+    }
+
+    private static void walk(Game game, int ply, int depth, int[][] moveBuffers, PerftResult result) {
+        result.nodes[ply]++;
+        Outcome outcome = game.getGameOutcome();
+        if (outcome != Outcome.UNDETERMINED) {
+            result.addOutcome(ply, outcome);
+            return;
+        }
+        if (ply == depth) {
+            return;
+        }
+        int[] moves = moveBuffers[ply];
+        int movesCount = game.getPossibleMoves(moves);
+        for (int i = 0; i < movesCount; i++) {
+            game.playTurn(moves[i]);
+            walk(game, ply + 1, depth, moveBuffers, result);
+            game.undoTurn(moves[i]);
+        }
+    }
+
+    public static class PerftResult {
+        private final long[] nodes;
+        private final long[] xWins;
+        private final long[] oWins;
+        private final long[] draws;
+        private long elapsedNanos;
+
+        PerftResult(int depth) {
+            nodes = new long[depth + 1];
+            xWins = new long[depth + 1];
+            oWins = new long[depth + 1];
+            draws = new long[depth + 1];
+        }
+
+        private void addOutcome(int ply, Outcome outcome) {
+            switch (outcome) {
+                case X_WON:
+                    xWins[ply]++;
+                    break;
+                case O_WON:
+                    oWins[ply]++;
+                    break;
+                case DRAW:
+                    draws[ply]++;
+                    break;
+            }
+        }
+
+        private void add(PerftResult other) {
+            for (int ply = 0; ply < nodes.length; ply++) {
+                nodes[ply] += other.nodes[ply];
+                xWins[ply] += other.xWins[ply];
+                oWins[ply] += other.oWins[ply];
+                draws[ply] += other.draws[ply];
+            }
+        }
+
+        public int getDepth() {
+            return nodes.length - 1;
+        }
+
+        public long getNodes(int ply) {
+            return nodes[ply];
+        }
+
+        public long getXWins(int ply) {
+            return xWins[ply];
+        }
+
+        public long getOWins(int ply) {
+            return oWins[ply];
+        }
+
+        public long getDraws(int ply) {
+            return draws[ply];
+        }
+
+        public long getTotalNodes() {
+            return sum(nodes);
+        }
+
+        public long getTotalXWins() {
+            return sum(xWins);
+        }
+
+        public long getTotalOWins() {
+            return sum(oWins);
+        }
+
+        public long getTotalDraws() {
+            return sum(draws);
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        public double getNodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : getTotalNodes() / getElapsedSeconds();
+        }
+
+        private static long sum(long[] values) {
+            long total = 0;
+            for (long value : values) {
+                total += value;
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format("%5s %12s %12s %12s %12s\n", "Ply", "Nodes", "X won", "O won", "Draw"));
+            for (int ply = 0; ply < nodes.length; ply++) {
+                builder.append(String.format("%5d %12d %12d %12d %12d\n",
+                  ply, nodes[ply], xWins[ply], oWins[ply], draws[ply]));
+            }
+            builder.append(String.format("%5s %12d %12d %12d %12d\n",
+              "Total", getTotalNodes(), getTotalXWins(), getTotalOWins(), getTotalDraws()));
+            builder.append(String.format("%.3fs, %.0f nodes/s", getElapsedSeconds(), getNodesPerSecond()));
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Arguments: width height winLength depth threads, by default the whole 3x3 game on every processor
+     */
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : Game.BOARD_SIZE;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : Game.BOARD_SIZE;
+        int winLength = args.length > 2 ? Integer.parseInt(args[2]) : Math.min(width, height);
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : width * height;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        Game game = new Game(width, height, winLength);
+        // first runs only warm up the JIT
+        for (int i = 0; i < 3; i++) {
+            perft(game, depth);
+        }
+        System.out.println("Single thread:\n" + perft(game, depth));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            perft(game, depth, pool);
+            System.out.println("\n" + threads + " threads:\n" + perft(game, depth, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -4,9 +4,24 @@ import java.awt.*;
 
 public abstract class Player {
     public abstract  Point next(Game board);
+
+    /**
+     * Same as next, with the move encoded for Game.playTurn(int)
+     */
+    public int nextMove(Game board) {
+        return board.toMove(next(board));
+    }
     public abstract String report();
 
+    /**
+     * Nodes searched for the last move, 0 for a player which does not search
+     */
+    public long getLastNodes() {
+        return 0;
+    }
+
     private Game.Side side;
+    private long deadline = Long.MAX_VALUE;
 
 
     public Game.Side getSide() {
@@ -21,4 +36,15 @@ public abstract class Player {
         this.side = side;
     }
 
+    /**
+     * System.nanoTime() by which the next move has to be returned, Long.MAX_VALUE when the player is not on a clock
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
 }
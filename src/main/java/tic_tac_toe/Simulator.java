@@ -3,12 +3,9 @@ package tic_tac_toe;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import tic_tac_toe.Game.Side;
-import utils.MetricRegistry;
 
 public class Simulator {
 
-    private static MetricRegistry metricRegistry = MetricRegistry.getInstance();
-
     private Player player1;
     private Player player2;
     private boolean player_1_first = false;
@@ -45,8 +42,11 @@ public class Simulator {
                 game.draw();
             while(game.getGameOutcome() == Game.Outcome.UNDETERMINED){
                 Player currentPlayer = game.getCurrentSide() == Game.Side.X ? getPlayerX() : getPlayerO();
-                Point p = currentPlayer.next(game);
-                game.playTurn(p);
+                long start = System.nanoTime();
+                int move = currentPlayer.nextMove(game);
+                long elapsed = System.nanoTime() - start;
+                result.addMove(currentPlayer == player1 ? 1 : 2, elapsed, currentPlayer.getLastNodes());
+                game.playTurn(move);
                 if (drawFirst) game.draw();
             }
             result.addGameOutcome(game.getGameOutcome(), player_1_first);
@@ -65,22 +65,49 @@ public class Simulator {
         private int gamesCount;
         private String player1Report;
         private String player2Report;
+        // per player, index 0 unused
+        private final int[] movesCount = new int[3];
+        private final long[] totalTime = new long[3];
+        private final long[] minTime = {0, Long.MAX_VALUE, Long.MAX_VALUE};
+        private final long[] maxTime = new long[3];
+        private final long[] totalNodes = new long[3];
+
+        /**
+         * Record a move of the player, its time in nanoseconds and the nodes searched for it
+         */
+        public void addMove(int player, long time, long nodes){
+            movesCount[player]++;
+            totalTime[player] += time;
+            minTime[player] = Math.min(minTime[player], time);
+            maxTime[player] = Math.max(maxTime[player], time);
+            totalNodes[player] += nodes;
+        }
 
+        public int getMovesCount(int player){
+            return movesCount[player];
+        }
+
+        /**
+         * Average time of a move of the player, in milliseconds
+         */
+        public double getAvgTime(int player){
+            return movesCount[player] == 0 ? 0 : totalTime[player] / 1e6 / movesCount[player];
+        }
 
-        public double getAvgTime(){
-            return metricRegistry.getTimer("computeBestAction").getAvgTime();
+        public double getMinTime(int player){
+            return movesCount[player] == 0 ? 0 : minTime[player] / 1e6;
         }
 
-        public double getMinTime(){
-            return metricRegistry.getTimer("computeBestAction").getMinTime();
+        public double getMaxTime(int player){
+            return maxTime[player] / 1e6;
         }
 
-        public double getMaxTime(){
-            return metricRegistry.getTimer("computeBestAction").getMaxTime();
+        public double getNodesPerMove(int player){
+            return movesCount[player] == 0 ? 0 : (double) totalNodes[player] / movesCount[player];
         }
 
-        public double getOperationCount(){
-            return metricRegistry.getCounter("computeBestAction").getCount();
+        public double getNodesPerSecond(int player){
+            return totalTime[player] == 0 ? 0 : totalNodes[player] * 1e9 / totalTime[player];
         }
 
 
@@ -141,8 +168,10 @@ public class Simulator {
         public String toString() {
             return String.format(
                     "Result: G: %d; X: %d (%.2f%%); O: %d (%.2f%%); D: %d (%.2f%%)\n"
-                      + "PlayerX: %s\n"
-                      + "PlayerO: %s",
+                      + "Player1: %s\n"
+                      + " Time/move: %.3fms (max %.3fms), Nodes/move: %.0f\n"
+                      + "Player2: %s\n"
+                      + " Time/move: %.3fms (max %.3fms), Nodes/move: %.0f",
                     this.getGamesCount(),
                     this.getGamesWonByPlayer1(),
                     this.getPercentageWon(1),
@@ -151,7 +180,13 @@ public class Simulator {
                     this.getGamesDrawn(),
                     this.getPercentageDrawn(),
                     this.player1Report,
-                    this.player2Report
+                    this.getAvgTime(1),
+                    this.getMaxTime(1),
+                    this.getNodesPerMove(1),
+                    this.player2Report,
+                    this.getAvgTime(2),
+                    this.getMaxTime(2),
+                    this.getNodesPerMove(2)
             );
         }
 
@@ -0,0 +1,112 @@
+package tic_tac_toe.players;
+
+import algorithms.IMoveNode;
+import tic_tac_toe.Constants;
+import tic_tac_toe.Game;
+import tic_tac_toe.Game.Side;
+
+import static tic_tac_toe.Game.Side.O;
+import static tic_tac_toe.Game.Side.X;
+
+/**
+ * Search node of a tic-tac-toe game, scored from the side to move. The game is played on and taken back in place.
+ */
+public class GameState implements IMoveNode {
+
+  final Game game;
+
+  public GameState(Game game) {
+    this.game = game;
+  }
+
+  @Override
+  public int getMaxMovesCount() {
+    return game.getWidth() * game.getHeight();
+  }
+
+  @Override
+  public int getPossibleMoves(int[] moves) {
+    return game.getPossibleMoves(moves);
+  }
+
+  @Override
+  public int getDistinctMoves(int[] moves) {
+    return game.getDistinctMoves(moves);
+  }
+
+  @Override
+  public void apply(int move) {
+    game.playTurn(move);
+  }
+
+  @Override
+  public void undo(int move) {
+    game.undoTurn(move);
+  }
+
+  @Override
+  public boolean isTerminal() {
+    return game.getGameOutcome() != Game.Outcome.UNDETERMINED;
+  }
+
+  @Override
+  public int getUtility() {
+    switch (game.getGameOutcome()){
+      case X_WON:
+        return game.getCurrentSide() == X ? Constants.WIN_UTILITY : -Constants.WIN_UTILITY;
+      case O_WON:
+        return game.getCurrentSide() == O ? Constants.WIN_UTILITY : -Constants.WIN_UTILITY;
+      case DRAW:
+        return 0;
+    }
+
+    // favour the windows where only one side has stones, weighted by how many it already has
+    Side side = game.getCurrentSide();
+    long score = 0;
+    long weight = 1;
+    for (int stones = 1; stones < game.getWinLength(); stones++) {
+      weight *= 5;
+      score += weight * (game.getOpenLines(side, stones) - game.getOpenLines(side.getOther(), stones));
+    }
+    return (int) Math.max(1 - Constants.WIN_UTILITY, Math.min(Constants.WIN_UTILITY - 1, score));
+  }
+
+  @Override
+  public String toString() {
+    return game.toString();
+  }
+
+  @Override
+  public long getKey() {
+    return game.getCanonicalKey();
+  }
+
+  @Override
+  public int toKeyMove(int move) {
+    return game.toCanonicalMove(move);
+  }
+
+  @Override
+  public int fromKeyMove(int move) {
+    return game.fromCanonicalMove(move);
+  }
+
+  @Override
+  public GameState copy() {
+    return new GameState(new Game(game));
+  }
+
+  @Override
+  public int hashCode() {
+    return game.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if(o instanceof GameState){
+      return ((GameState) o).game.equals(game);
+    } else {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package tic_tac_toe.players;
+
+import algorithms.MonteCarloTreeSearch;
+import algorithms.SearchLimits;
+import algorithms.SearchResult;
+import tic_tac_toe.Constants;
+import tic_tac_toe.Game;
+import tic_tac_toe.Player;
+import tic_tac_toe.Point;
+
+/**
+ * Player choosing its moves with a Monte Carlo tree search, which keeps the tree of its last move for the next one
+ */
+public class MctsPlayer extends Player {
+
+  private final MonteCarloTreeSearch<GameState> engine;
+  private final SearchLimits limits = new SearchLimits();
+  // totals over the moves played, for the report
+  private int movesCount = 0;
+  private long playouts = 0;
+  private long elapsedTime = 0;
+  private long depths = 0;
+
+  public MctsPlayer() {
+    this(new MonteCarloTreeSearch<>(Constants.MCTS_PLAYOUTS));
+  }
+
+  protected MctsPlayer(MonteCarloTreeSearch<GameState> engine) {
+    this.engine = engine;
+  }
+
+  public MonteCarloTreeSearch<GameState> getEngine() {
+    return engine;
+  }
+
+  public Point next(Game game) {
+    return game.toPoint(nextMove(game));
+  }
+
+  @Override
+  public int nextMove(Game game) {
+    limits.setDeadline(getDeadline());
+    SearchResult result = engine.search(new GameState(game), limits);
+    movesCount++;
+    playouts += result.getNodes();
+    elapsedTime += result.getElapsedTime();
+    depths += result.getDepth();
+    return result.getBestMove();
+  }
+
+  /**
+   * Result of the search of the last move, its nodes are the playouts
+   */
+  public SearchResult getLastResult() {
+    return engine.getLastResult();
+  }
+
+  @Override
+  public long getLastNodes() {
+    return getLastResult().getNodes();
+  }
+
+  @Override
+  public String report() {
+    int moves = Math.max(1, movesCount);
+    return String.format(
+      "%s: Moves: %d, Playouts/move: %.0f, Time/move: %.3fms, Playouts/s: %.0f, Depth: %.1f",
+      getClass().getSimpleName(),
+      movesCount,
+      (double) playouts / moves,
+      elapsedTime / 1e6 / moves,
+      elapsedTime == 0 ? 0 : playouts * 1e9 / elapsedTime,
+      (double) depths / moves
+    );
+  }
+}
@@ -0,0 +1,12 @@
+package tic_tac_toe.players;
+
+import algorithms.PVSAlgorithm;
+import tic_tac_toe.Constants;
+
+public class PVSPlayer extends SearchPlayer {
+
+  public PVSPlayer() {
+    super(new PVSAlgorithm<>(Constants.USE_CACHING, Constants.MAX_DEPTH));
+  }
+
+}
@@ -0,0 +1,76 @@
+package tic_tac_toe.players;
+
+import algorithms.SearchEngine;
+import algorithms.SearchLimits;
+import algorithms.SearchResult;
+import tic_tac_toe.Game;
+import tic_tac_toe.Player;
+import tic_tac_toe.Point;
+
+/**
+ * Player choosing its moves with a search engine
+ */
+public abstract class SearchPlayer extends Player {
+
+  private final SearchEngine<GameState> engine;
+  private final SearchLimits limits = new SearchLimits();
+  // totals over the moves played, for the report
+  private int movesCount = 0;
+  private long nodes = 0;
+  private long elapsedTime = 0;
+  private long cacheProbes = 0;
+  private long cacheHits = 0;
+  private long depths = 0;
+
+  protected SearchPlayer(SearchEngine<GameState> engine) {
+    this.engine = engine;
+  }
+
+  public SearchEngine<GameState> getEngine() {
+    return engine;
+  }
+
+  public Point next(Game game) {
+    return game.toPoint(nextMove(game));
+  }
+
+  @Override
+  public int nextMove(Game game) {
+    limits.setDeadline(getDeadline());
+    SearchResult result = engine.search(new GameState(game), limits);
+    movesCount++;
+    nodes += result.getNodes();
+    elapsedTime += result.getElapsedTime();
+    cacheProbes += result.getCacheProbes();
+    cacheHits += result.getCacheHits();
+    depths += result.getDepth();
+    return result.getBestMove();
+  }
+
+  /**
+   * Result of the search of the last move
+   */
+  public SearchResult getLastResult() {
+    return engine.getLastResult();
+  }
+
+  @Override
+  public long getLastNodes() {
+    return getLastResult().getNodes();
+  }
+
+  @Override
+  public String report() {
+    int moves = Math.max(1, movesCount);
+    return String.format(
+      "%s: Moves: %d, Nodes/move: %.0f, Time/move: %.3fms, Nodes/s: %.0f, CacheHitRate: %.1f%%, Depth: %.1f",
+      getClass().getSimpleName(),
+      movesCount,
+      (double) nodes / moves,
+      elapsedTime / 1e6 / moves,
+      elapsedTime == 0 ? 0 : nodes * 1e9 / elapsedTime,
+      cacheProbes == 0 ? 0 : 100.0 * cacheHits / cacheProbes,
+      (double) depths / moves
+    );
+  }
+}
@@ -0,0 +1,129 @@
+package ultimate_tic_tac_toe;
+
+import algorithms.IMoveNode;
+import tic_tac_toe.Constants;
+import tic_tac_toe.Game.Outcome;
+import tic_tac_toe.Game.Side;
+
+/**
+ * Search node of an ultimate tic-tac-toe game, scored from the side to move. The moves are the ones of UltimateGame.
+ */
+public class GameState implements IMoveNode {
+
+  private static final int[] POWERS_OF_5 = {1, 5, 25, 125};
+
+  final UltimateGame game;
+
+  public GameState(UltimateGame game) {
+    this.game = game;
+  }
+
+  @Override
+  public int getMaxMovesCount() {
+    return UltimateGame.MOVES_COUNT;
+  }
+
+  @Override
+  public int getPossibleMoves(int[] moves) {
+    return game.getPossibleMoves(moves);
+  }
+
+  @Override
+  public int getDistinctMoves(int[] moves) {
+    // the board the next move is sent to rarely leaves a position symmetric, moves are not deduplicated
+    return game.getPossibleMoves(moves);
+  }
+
+  @Override
+  public void apply(int move) {
+    game.playTurn(move);
+  }
+
+  @Override
+  public void undo(int move) {
+    game.undoTurn(move);
+  }
+
+  @Override
+  public boolean isTerminal() {
+    return game.getGameOutcome() != Outcome.UNDETERMINED;
+  }
+
+  @Override
+  public int getUtility() {
+    Side side = game.getCurrentSide();
+    switch (game.getGameOutcome()) {
+      case X_WON:
+        return side == Side.X ? Constants.WIN_UTILITY : -Constants.WIN_UTILITY;
+      case O_WON:
+        return side == Side.O ? Constants.WIN_UTILITY : -Constants.WIN_UTILITY;
+      case DRAW:
+        return 0;
+    }
+
+    // same as the tic-tac-toe heuristic, once over the boards of every open board and once over the macro board
+    // where a won board counts as a stone worth more than any stone of a board
+    Side other = side.getOther();
+    int score = 0;
+    int closed = game.getClosedBoards();
+    for (int board = 0; board < UltimateGame.BOARDS_COUNT; board++) {
+      if ((closed & (1 << board)) == 0) {
+        score += linesScore(game.getBoardBits(side, board), game.getBoardBits(other, board), 1);
+      }
+    }
+    return score + linesScore(game.getWonBoards(side), game.getWonBoards(other), 25);
+  }
+
+  private static int linesScore(int own, int other, int weight) {
+    int score = 0;
+    for (int line : UltimateGame.LINES) {
+      int ownCount = Integer.bitCount(own & line);
+      int otherCount = Integer.bitCount(other & line);
+      if (otherCount == 0 && ownCount > 0) {
+        score += weight * POWERS_OF_5[ownCount];
+      } else if (ownCount == 0 && otherCount > 0) {
+        score -= weight * POWERS_OF_5[otherCount];
+      }
+    }
+    return score;
+  }
+
+  @Override
+  public long getKey() {
+    return game.getKey();
+  }
+
+  @Override
+  public int toKeyMove(int move) {
+    return move;
+  }
+
+  @Override
+  public int fromKeyMove(int move) {
+    return move;
+  }
+
+  @Override
+  public GameState copy() {
+    return new GameState(new UltimateGame(game));
+  }
+
+  @Override
+  public String toString() {
+    return game.toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return game.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof GameState) {
+      return ((GameState) o).game.equals(game);
+    } else {
+      return false;
+    }
+  }
+}
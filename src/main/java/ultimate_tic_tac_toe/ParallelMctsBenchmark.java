@@ -0,0 +1,109 @@
+package ultimate_tic_tac_toe;
+
+import algorithms.MonteCarloTreeSearch;
+import algorithms.MonteCarloTreeSearch.Parallelism;
+import algorithms.SearchLimits;
+import java.util.concurrent.ForkJoinPool;
+import tic_tac_toe.Game.Outcome;
+import tic_tac_toe.Game.Side;
+
+/**
+ * Measures how the parallel Monte Carlo searches scale with the threads: the playouts per second from the start
+ * position, and the score of games against the search on a single thread, both sides having the same time per move.
+ *
+ * The score counts a win as 1 and a draw as 0.5, over games where each search plays first half of the time. A
+ * parallel search only gets better when its extra playouts are worth more than the ones it wastes on the branches
+ * the virtual losses send its threads to, or on the trees of the root parallel search which are not merged below
+ * the root.
+ */
+public class ParallelMctsBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+
+    /**
+     * The calling thread plays with the n - 1 threads of the pool
+     */
+    private static MonteCarloTreeSearch<GameState> newEngine(Parallelism parallelism, ForkJoinPool pool) {
+        MonteCarloTreeSearch<GameState> engine = new MonteCarloTreeSearch<>(Integer.MAX_VALUE);
+        engine.setPool(pool);
+        engine.setParallelism(parallelism);
+        return engine;
+    }
+
+    private static int nextMove(MonteCarloTreeSearch<GameState> engine, UltimateGame game, long time) {
+        SearchLimits limits = new SearchLimits();
+        limits.setDeadline(System.nanoTime() + time * 1000000);
+        return engine.search(new GameState(game), limits).getBestMove();
+    }
+
+    /**
+     * Play a game between the two engines, return the points of the first one
+     */
+    private static double play(MonteCarloTreeSearch<GameState> engine, MonteCarloTreeSearch<GameState> opponent,
+                               boolean engineFirst, long time) {
+        UltimateGame game = new UltimateGame();
+        Side engineSide = engineFirst ? Side.X : Side.O;
+        while (game.getGameOutcome() == Outcome.UNDETERMINED) {
+            boolean engineToMove = game.getCurrentSide() == engineSide;
+            game.playTurn(nextMove(engineToMove ? engine : opponent, game, time));
+        }
+        if (game.getGameOutcome() == Outcome.DRAW) {
+            return 0.5;
+        }
+        return (game.getGameOutcome() == Outcome.X_WON) == engineFirst ? 1 : 0;
+    }
+
+    /**
+     * Arguments: milliseconds per move and games per number of threads, by default 100ms and 20 games
+     */
+    public static void main(String[] args) {
+        long time = args.length > 0 ? Long.parseLong(args[0]) : 100;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        System.out.println(Runtime.getRuntime().availableProcessors() + " processors");
+
+        for (Parallelism parallelism : Parallelism.values()) {
+            System.out.println(String.format("\n%s:\n%7s %12s %9s %14s", parallelism, "Threads", "Playouts/s",
+              "Speedup", "Score vs 1"));
+            double sequentialRate = 0;
+            for (int threads : THREADS) {
+                ForkJoinPool pool = threads == 1 ? null : new ForkJoinPool(threads - 1);
+                try {
+                    // the engines are kept from one search to the other, the pools of their trees are allocated once
+                    MonteCarloTreeSearch<GameState> engine = newEngine(parallelism, pool);
+                    MonteCarloTreeSearch<GameState> opponent = newEngine(parallelism, null);
+                    // the first second of searches only warms up the JIT
+                    for (long i = 0; i < Math.max(5, 1000 / time); i++) {
+                        nextMove(engine, new UltimateGame(), time);
+                        nextMove(opponent, new UltimateGame(), time);
+                    }
+                    long playouts = 0;
+                    long elapsed = 0;
+                    for (int i = 0; i < 5; i++) {
+                        nextMove(engine, new UltimateGame(), time);
+                        playouts += engine.getLastResult().getNodes();
+                        elapsed += engine.getLastResult().getElapsedTime();
+                    }
+                    double rate = playouts * 1e9 / elapsed;
+                    if (threads == 1) {
+                        sequentialRate = rate;
+                    }
+
+                    double points = 0;
+                    for (int i = 0; i < games; i++) {
+                        points += play(engine, opponent, i % 2 == 0, time);
+                    }
+                    System.out.println(String.format("%7d %12.0f %8.2fx %8.1f/%d",
+                      threads,
+                      rate,
+                      rate / sequentialRate,
+                      points,
+                      games));
+                } finally {
+                    if (pool != null) {
+                        pool.shutdown();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package ultimate_tic_tac_toe;
+
+import java.util.Arrays;
+import java.util.Random;
+import tic_tac_toe.Game.Outcome;
+import tic_tac_toe.Game.Side;
+
+/**
+ * Ultimate tic-tac-toe: nine 3x3 boards laid out as a 3x3 macro board. The cell of a move sends the opponent to the
+ * board at the same place of the macro board, unless that board is already won or full in which case any open
+ * board can be played. Winning a board takes its place on the macro board and three boards in a row win the game.
+ * When every board is closed without such a line, the side which won the most boards wins.
+ *
+ * A move is encoded as board * 9 + cell, boards and cells being numbered row by row from the top left corner. Each
+ * board is a 9 bits mask per side, so lines are found with table lookups and a move is played or undone in constant
+ * time.
+ */
+public class UltimateGame {
+
+    public static final int BOARDS_COUNT = 9;
+    public static final int MOVES_COUNT = BOARDS_COUNT * 9;
+    static final int FULL_BOARD = 0x1FF;
+    // rows, columns and diagonals of a 3x3 board
+    static final int[] LINES = {0x007, 0x038, 0x1C0, 0x049, 0x092, 0x124, 0x111, 0x054};
+    private static final boolean[] WINS = new boolean[1 << 9];
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    // zobrist keys of a stone on every cell, X at 2 * move and O at 2 * move + 1
+    private static final long[] ZOBRIST_KEYS = new long[2 * MOVES_COUNT];
+    // zobrist keys of the board the next move is constrained to, any board at 0
+    private static final long[] NEXT_BOARD_KEYS = new long[BOARDS_COUNT + 1];
+    private static final long SIDE_TO_MOVE_KEY;
+
+    static {
+        for (int mask = 0; mask < WINS.length; mask++) {
+            for (int line : LINES) {
+                WINS[mask] |= (mask & line) == line;
+            }
+        }
+        // seeded so that keys are stable from one run to the other
+        Random random = new Random(MOVES_COUNT);
+        for (int i = 0; i < ZOBRIST_KEYS.length; i++) {
+            ZOBRIST_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < NEXT_BOARD_KEYS.length; i++) {
+            NEXT_BOARD_KEYS[i] = random.nextLong();
+        }
+        SIDE_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private final int[] xBits = new int[BOARDS_COUNT];
+    private final int[] oBits = new int[BOARDS_COUNT];
+    // boards won by each side, and boards which can no longer be played, one bit per board
+    private int xBoards = 0;
+    private int oBoards = 0;
+    private int closedBoards = 0;
+    // board the next move must be played on, -1 for any open board
+    private int nextBoard = -1;
+    private int totalCount = 0;
+    private Outcome outcome = Outcome.UNDETERMINED;
+    private long key = NEXT_BOARD_KEYS[0];
+    // next board + 1 and outcome before every move, restored by undoTurn
+    private final int[] history = new int[MOVES_COUNT];
+    private final int[] playoutMoves = new int[MOVES_COUNT];
+    private final int[] playoutBuffer = new int[MOVES_COUNT];
+
+    public UltimateGame() {
+    }
+
+    /**
+     * Independent copy of the game, moves played on one do not show on the other
+     */
+    public UltimateGame(UltimateGame other) {
+        System.arraycopy(other.xBits, 0, xBits, 0, BOARDS_COUNT);
+        System.arraycopy(other.oBits, 0, oBits, 0, BOARDS_COUNT);
+        System.arraycopy(other.history, 0, history, 0, MOVES_COUNT);
+        xBoards = other.xBoards;
+        oBoards = other.oBoards;
+        closedBoards = other.closedBoards;
+        nextBoard = other.nextBoard;
+        totalCount = other.totalCount;
+        outcome = other.outcome;
+        key = other.key;
+    }
+
+    public static int toMove(int row, int col) {
+        return (row / 3 * 3 + col / 3) * 9 + row % 3 * 3 + col % 3;
+    }
+
+    public static int getRow(int move) {
+        return move / 27 * 3 + move % 9 / 3;
+    }
+
+    public static int getCol(int move) {
+        return move / 9 % 3 * 3 + move % 3;
+    }
+
+    public Side getCell(int row, int col) {
+        int move = toMove(row, col);
+        int bit = 1 << (move % 9);
+        if ((xBits[move / 9] & bit) != 0) {
+            return Side.X;
+        }
+        if ((oBits[move / 9] & bit) != 0) {
+            return Side.O;
+        }
+        return Side.NEUTRAL;
+    }
+
+    /**
+     * Cells of the board holding a stone of the side, one bit per cell
+     */
+    public int getBoardBits(Side side, int board) {
+        return (side == Side.X ? xBits : oBits)[board];
+    }
+
+    /**
+     * Boards won by the side, one bit per board
+     */
+    public int getWonBoards(Side side) {
+        return side == Side.X ? xBoards : oBoards;
+    }
+
+    /**
+     * Boards won by either side or full, one bit per board
+     */
+    public int getClosedBoards() {
+        return closedBoards;
+    }
+
+    /**
+     * Board the next move has to be played on, -1 if any open board can be played
+     */
+    public int getNextBoard() {
+        return nextBoard;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public Side getCurrentSide() {
+        return totalCount % 2 == 0 ? Side.X : Side.O;
+    }
+
+    public Side getLastPlayer() {
+        return totalCount % 2 == 0 ? Side.O : Side.X;
+    }
+
+    public Outcome getGameOutcome() {
+        return outcome;
+    }
+
+    /**
+     * 64 bits zobrist key of the stones, the side to move and the board the next move is constrained to
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Write the legal moves into moves, a buffer of at least MOVES_COUNT moves, and return how many were written
+     */
+    public int getPossibleMoves(int[] moves) {
+        if (outcome != Outcome.UNDETERMINED) {
+            return 0;
+        }
+        if (nextBoard >= 0) {
+            return addBoardMoves(nextBoard, moves, 0);
+        }
+        int count = 0;
+        for (int board = 0; board < BOARDS_COUNT; board++) {
+            if ((closedBoards & (1 << board)) == 0) {
+                count = addBoardMoves(board, moves, count);
+            }
+        }
+        return count;
+    }
+
+    private int addBoardMoves(int board, int[] moves, int count) {
+        for (int free = ~(xBits[board] | oBits[board]) & FULL_BOARD; free != 0; free &= free - 1) {
+            moves[count++] = board * 9 + Integer.numberOfTrailingZeros(free);
+        }
+        return count;
+    }
+
+    /**
+     * Play the current side on the empty cell of the encoded move, the move must be legal
+     */
+    public void playTurn(int move) {
+        int board = move / 9;
+        int cell = move % 9;
+        int own = getCurrentSide() == Side.X ? 0 : 1;
+        history[totalCount] = (nextBoard + 1) | (outcome.ordinal() << 4);
+        key ^= NEXT_BOARD_KEYS[nextBoard + 1] ^ SIDE_TO_MOVE_KEY ^ ZOBRIST_KEYS[2 * move + own];
+        (own == 0 ? xBits : oBits)[board] |= 1 << cell;
+        totalCount++;
+        updateBoard(board);
+        nextBoard = (closedBoards & (1 << cell)) != 0 ? -1 : cell;
+        key ^= NEXT_BOARD_KEYS[nextBoard + 1];
+        // only a board closed by this move can end the game
+        if ((closedBoards & (1 << board)) != 0) {
+            if (WINS[xBoards]) {
+                outcome = Outcome.X_WON;
+            } else if (WINS[oBoards]) {
+                outcome = Outcome.O_WON;
+            } else if (closedBoards == FULL_BOARD) {
+                int difference = Integer.bitCount(xBoards) - Integer.bitCount(oBoards);
+                outcome = difference > 0 ? Outcome.X_WON : difference < 0 ? Outcome.O_WON : Outcome.DRAW;
+            }
+        }
+    }
+
+    /**
+     * Take back the last move played
+     */
+    public void undoTurn(int move) {
+        if (totalCount == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        int board = move / 9;
+        int own = getLastPlayer() == Side.X ? 0 : 1;
+        key ^= NEXT_BOARD_KEYS[nextBoard + 1];
+        (own == 0 ? xBits : oBits)[board] &= ~(1 << (move % 9));
+        totalCount--;
+        updateBoard(board);
+        int entry = history[totalCount];
+        nextBoard = (entry & 15) - 1;
+        outcome = OUTCOMES[entry >> 4];
+        key ^= NEXT_BOARD_KEYS[nextBoard + 1] ^ SIDE_TO_MOVE_KEY ^ ZOBRIST_KEYS[2 * move + own];
+    }
+
+    private void updateBoard(int board) {
+        int bit = 1 << board;
+        boolean xWon = WINS[xBits[board]];
+        boolean oWon = WINS[oBits[board]];
+        xBoards = xWon ? xBoards | bit : xBoards & ~bit;
+        oBoards = oWon ? oBoards | bit : oBoards & ~bit;
+        boolean closed = xWon || oWon || (xBits[board] | oBits[board]) == FULL_BOARD;
+        closedBoards = closed ? closedBoards | bit : closedBoards & ~bit;
+    }
+
+    /**
+     * Play uniformly random moves until the game ends, then take them all back. Nothing is allocated, so it can run
+     * as often as a Monte Carlo search needs.
+     *
+     * @return the outcome of the random game
+     */
+    public Outcome playout(Random random) {
+        int played = 0;
+        while (outcome == Outcome.UNDETERMINED) {
+            int count = getPossibleMoves(playoutBuffer);
+            int move = playoutBuffer[random.nextInt(count)];
+            playTurn(move);
+            playoutMoves[played++] = move;
+        }
+        Outcome result = outcome;
+        while (played > 0) {
+            undoTurn(playoutMoves[--played]);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof UltimateGame) {
+            UltimateGame other = (UltimateGame) o;
+            return other.nextBoard == nextBoard
+              && Arrays.equals(other.xBits, xBits)
+              && Arrays.equals(other.oBits, oBits);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                builder.append(getCell(row, col).toString());
+            }
+            if (row < 8) builder.append('|');
+        }
+        builder.append(String.format(" [P:%s, B:%d, W:%s]", getCurrentSide(), nextBoard, outcome));
+        return builder.toString();
+    }
+}
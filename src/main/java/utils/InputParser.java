@@ -0,0 +1,76 @@
+package utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads whitespace separated ints from a stream through a single reusable buffer, nothing is allocated once it is
+ * created.
+ */
+public class InputParser {
+
+  private final InputStream input;
+  private final byte[] buffer;
+  private int position = 0;
+  private int length = 0;
+  private long lastReadTime = 0;
+
+  public InputParser(InputStream input) {
+    this(input, 1 << 16);
+  }
+
+  public InputParser(InputStream input, int bufferSize) {
+    this.input = input;
+    this.buffer = new byte[bufferSize];
+  }
+
+  /**
+   * System.nanoTime() when the last bytes were received from the stream. Reading blocks until the opponent has
+   * played, so this is when the turn started.
+   */
+  public long getLastReadTime() {
+    return lastReadTime;
+  }
+
+  /**
+   * @throws EOFException once the stream ends
+   */
+  public int nextInt() throws IOException {
+    int c = read();
+    while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+      c = read();
+    }
+    boolean negative = c == '-';
+    if (negative) {
+      c = read();
+    }
+    if (c < '0' || c > '9') {
+      throw new IOException("Expected a digit, got '" + (char) c + "'");
+    }
+    int value = 0;
+    while (c >= '0' && c <= '9') {
+      value = value * 10 + c - '0';
+      c = position < length || fill() ? buffer[position++] : -1;
+    }
+    return negative ? -value : value;
+  }
+
+  private int read() throws IOException {
+    if (position == length && !fill()) {
+      throw new EOFException();
+    }
+    return buffer[position++];
+  }
+
+  private boolean fill() throws IOException {
+    length = input.read(buffer, 0, buffer.length);
+    position = 0;
+    if (length <= 0) {
+      length = 0;
+      return false;
+    }
+    lastReadTime = System.nanoTime();
+    return true;
+  }
+}
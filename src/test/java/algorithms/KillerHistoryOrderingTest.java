@@ -0,0 +1,44 @@
+package algorithms;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class KillerHistoryOrderingTest {
+
+  @Test
+  public void testOrder(){
+    KillerHistoryOrdering ordering = new KillerHistoryOrdering();
+    int[] moves = {0, 1, 2, 3, 4, 5, 6, 7};
+    // nothing learned yet, the hash move goes first and the rest keep their order
+    ordering.order(moves, 8, 0, 5);
+    assert Arrays.equals(moves, new int[]{5, 0, 1, 2, 3, 4, 6, 7});
+
+    ordering.cutoff(3, 1, 2);
+    ordering.cutoff(6, 4, 2);
+    ordering.cutoff(1, 2, 0);
+    assert ordering.getKiller(2, 0) == 6;
+    assert ordering.getKiller(2, 1) == 3;
+    assert ordering.getKiller(1, 0) == -1;
+    assert ordering.getHistory(6) == 16;
+    assert ordering.getHistory(1) == 4;
+
+    // hash move, killers of the ply, then the history
+    moves = new int[]{0, 1, 2, 3, 4, 5, 6, 7};
+    ordering.order(moves, 8, 2, 7);
+    assert Arrays.equals(moves, new int[]{7, 6, 3, 1, 0, 2, 4, 5});
+
+    // the hash move is not tried twice, and moves missing from the node are skipped
+    moves = new int[]{0, 1, 2, 4, 6};
+    ordering.order(moves, 5, 2, 6);
+    assert Arrays.equals(moves, new int[]{6, 1, 0, 2, 4});
+
+    // only the first moves count
+    moves = new int[]{0, 2, 1, 6, 3};
+    ordering.order(moves, 3, 0, -1);
+    assert Arrays.equals(moves, new int[]{1, 0, 2, 6, 3});
+
+    ordering.clear();
+    assert ordering.getKiller(2, 0) == -1;
+    assert ordering.getHistory(6) == 0;
+  }
+}
@@ -0,0 +1,154 @@
+package algorithms;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import tic_tac_toe.Game;
+import tic_tac_toe.players.GameState;
+import ultimate_tic_tac_toe.UltimateGame;
+
+public class MonteCarloTreeSearchTest {
+
+  @Test
+  public void testWinningMove(){
+    Game game = new Game();
+    // O can win at once in (1, 0)
+    game.playTurn(game.toMove(0, 1));
+    game.playTurn(game.toMove(0, 0));
+    game.playTurn(game.toMove(1, 2));
+    game.playTurn(game.toMove(2, 0));
+    game.playTurn(game.toMove(2, 2));
+    GameState state = new GameState(game);
+    MonteCarloTreeSearch<GameState> mcts = new MonteCarloTreeSearch<>(5000);
+    mcts.setSeed(1);
+    SearchResult result = mcts.search(state, new SearchLimits());
+    assert result.getBestMove() == game.toMove(1, 0);
+    assert result.getNodes() == 5000;
+    assert result.getScore() > 900 : result.getScore();
+    assert result.getPrincipalVariation()[0] == result.getBestMove();
+    assert !result.isAborted();
+  }
+
+  @Test
+  public void testForcedMove(){
+    // X has to block the column of O
+    Game game = Game.fromString("X.O|.X.|..O");
+    MonteCarloTreeSearch<GameState> mcts = new MonteCarloTreeSearch<>(20000);
+    mcts.setSeed(1);
+    assert mcts.computeBestMove(new GameState(game)) == game.toMove(2, 1);
+  }
+
+  @Test
+  public void testTreeReuse(){
+    Game game = new Game();
+    MonteCarloTreeSearch<GameState> mcts = new MonteCarloTreeSearch<>(2000);
+    mcts.setSeed(1);
+    int move = mcts.computeBestMove(new GameState(game));
+    int size = mcts.size();
+    game.playTurn(move);
+    game.playTurn(mcts.getLastResult().getPrincipalVariationMove(1));
+
+    // two plies later, the search starts from the subtree of the position
+    mcts.setPlayouts(1);
+    mcts.computeBestMove(new GameState(game));
+    assert mcts.getRootVisits() > 2 : mcts.getRootVisits();
+    assert mcts.size() > 1 && mcts.size() < size;
+    // an unrelated position starts a new tree
+    mcts.computeBestMove(new GameState(Game.fromString("X..|...|...")));
+    assert mcts.getRootVisits() == 1;
+  }
+
+  @Test
+  public void testLimits(){
+    MonteCarloTreeSearch<GameState> mcts = new MonteCarloTreeSearch<>(Integer.MAX_VALUE);
+    GameState state = new GameState(new Game(7, 7, 5));
+    SearchLimits limits = new SearchLimits();
+    limits.setDeadline(System.nanoTime() + 20 * 1000000);
+    SearchResult result = mcts.search(state, limits);
+    assert result.isAborted();
+    assert result.getNodes() > 0;
+    assert result.getElapsedTime() < 1000 * 1000000L : result.getElapsedTime();
+    assert result.getBestMove() >= 0;
+
+    limits.reset();
+    limits.setMaxNodes(100);
+    assert mcts.search(new GameState(new Game()), limits).getNodes() == 100;
+  }
+
+  @Test
+  public void testFullPool(){
+    // the tree cannot grow past the root and its children, the playouts start from them
+    Game game = new Game();
+    MonteCarloTreeSearch<GameState> mcts = new MonteCarloTreeSearch<>(1000, 12);
+    while (game.getGameOutcome() == Game.Outcome.UNDETERMINED) {
+      GameState state = new GameState(game);
+      int move = mcts.computeBestMove(state);
+      assert mcts.size() <= 12;
+      assert isLegal(state, move);
+      game.playTurn(move);
+    }
+  }
+
+  @Test
+  public void testTreeParallel(){
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      MonteCarloTreeSearch<GameState> mcts = new MonteCarloTreeSearch<>(5000);
+      mcts.setPool(pool);
+      testParallel(mcts);
+      // a shared tree holds every playout
+      assert mcts.getRootVisits() == 5000;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testRootParallel(){
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      MonteCarloTreeSearch<GameState> mcts = new MonteCarloTreeSearch<>(5000);
+      mcts.setPool(pool);
+      mcts.setParallelism(MonteCarloTreeSearch.Parallelism.ROOT);
+      testParallel(mcts);
+      // the visits of the other trees are added to the root
+      assert mcts.getRootVisits() == 5000;
+      // the next search reuses each tree with its own visits, the 1250 of this one are not counted twice
+      mcts.search(new GameState(Game.fromString("X.O|.X.|..O")), new SearchLimits());
+      assert mcts.getRootVisits() == 10000 : mcts.getRootVisits();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void testParallel(MonteCarloTreeSearch<GameState> mcts){
+    Game game = Game.fromString("X.O|.X.|..O");
+    GameState state = new GameState(game);
+    SearchResult result = mcts.search(state, new SearchLimits());
+    assert result.getBestMove() == game.toMove(2, 1);
+    assert result.getNodes() == 5000;
+    assert !result.isAborted();
+    assert game.equals(Game.fromString("X.O|.X.|..O"));
+  }
+
+  @Test
+  public void testUltimateGame(){
+    UltimateGame game = new UltimateGame();
+    MonteCarloTreeSearch<ultimate_tic_tac_toe.GameState> mcts = new MonteCarloTreeSearch<>(2000);
+    for (int i = 0; i < 10; i++) {
+      ultimate_tic_tac_toe.GameState state = new ultimate_tic_tac_toe.GameState(game);
+      int move = mcts.computeBestMove(state);
+      assert isLegal(state, move);
+      state.apply(move);
+    }
+  }
+
+  private static boolean isLegal(IMoveNode node, int move){
+    int[] moves = new int[node.getMaxMovesCount()];
+    for (int i = node.getPossibleMoves(moves) - 1; i >= 0; i--) {
+      if (moves[i] == move) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,513 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import tic_tac_toe.Game;
+import tic_tac_toe.players.GameState;
+import utils.MetricRegistry;
+
+public class SearchEngineTest {
+
+  @Test
+  public void testTableReuse(){
+    MetricRegistry.Counter nodes = MetricRegistry.getInstance().getCounter(
+      IterativeDeepeningAlgorithm.class.getName() + "Nodes");
+    Game game = new Game(4, 4, 4);
+    GameState state = new GameState(game);
+    IterativeDeepeningAlgorithm<GameState> algorithm = new IterativeDeepeningAlgorithm<>(true, 5);
+
+    long nodesBefore = nodes.getCount();
+    int move = algorithm.computeBestMove(state);
+    long firstSearch = nodes.getCount() - nodesBefore;
+
+    // the second search starts from the entries of the first one
+    nodesBefore = nodes.getCount();
+    assert algorithm.computeBestMove(state) == move;
+    long secondSearch = nodes.getCount() - nodesBefore;
+    assert secondSearch < firstSearch / 2 : secondSearch + " nodes after " + firstSearch;
+
+    // a fresh engine finds the same move
+    assert new IterativeDeepeningAlgorithm<GameState>(true, 5).computeBestMove(state) == move;
+    assert game.equals(new Game(4, 4, 4));
+  }
+
+  @Test
+  public void testDeepTableReuse(){
+    // deeper than the table can record, the search is clamped to a depth its entries can still answer
+    Game game = Game.fromString("X..|.O.|...");
+    NegaMaxAlphaBetaAlgorithm<GameState> algorithm = new NegaMaxAlphaBetaAlgorithm<>(true, 300);
+    long firstSearch = algorithm.search(new GameState(game), new SearchLimits()).getNodes();
+    long secondSearch = algorithm.search(new GameState(game), new SearchLimits()).getNodes();
+    assert secondSearch < firstSearch / 10 : secondSearch + " nodes after " + firstSearch;
+  }
+
+  @Test
+  public void testRotatedHashMove(){
+    // the table is shared by the rotations of a position, its move must be the one of the position probing it
+    Game game = Game.fromString("XX.|O..|O..");
+    IterativeDeepeningAlgorithm<GameState> algorithm = new IterativeDeepeningAlgorithm<>(true, 9);
+    assert algorithm.computeBestMove(new GameState(game)) == game.toMove(2, 0);
+    Game rotatedGame = Game.fromString("OOX|..X|...");
+    GameState rotated = new GameState(rotatedGame);
+    long entry = algorithm.getTranspositionTable().probe(rotated.getKey());
+    assert entry != 0;
+    assert rotated.fromKeyMove(TranspositionTable.getMove(entry)) == rotatedGame.toMove(2, 2);
+  }
+
+  @Test
+  public void testUnboundedDepth(){
+    // without a depth limit the deepening stops once the whole game is searched
+    for (SearchEngine<GameState> algorithm : Arrays.<SearchEngine<GameState>>asList(
+      new IterativeDeepeningAlgorithm<>(), new MTDAlgorithm<>())) {
+      SearchResult result = algorithm.search(new GameState(new Game()), new SearchLimits());
+      assert result.getScore() == 0;
+      assert result.getDepth() <= 9 : result.getDepth();
+    }
+
+    // or once it finds a win
+    Game game = Game.fromString("O.O|X..|X.X");
+    SearchResult result = new IterativeDeepeningAlgorithm<GameState>().search(new GameState(game), new SearchLimits());
+    assert result.getBestMove() == game.toMove(1, 0);
+    assert result.isMate() && result.getMateDistance() == 1;
+    assert result.getDepth() == 1;
+  }
+
+  @Test
+  public void testMoveOrdering(){
+    MetricRegistry registry = MetricRegistry.getInstance();
+    String prefix = NegaMaxAlphaBetaAlgorithm.class.getName();
+    NegaMaxAlphaBetaAlgorithm<GameState> ordered = new NegaMaxAlphaBetaAlgorithm<>(false, 4);
+    NegaMaxAlphaBetaAlgorithm<GameState> unordered = new NegaMaxAlphaBetaAlgorithm<>(false, 4);
+    unordered.setMoveOrdering(null);
+    assert ordered.getMoveOrdering() instanceof KillerHistoryOrdering;
+    Game game = new Game(5, 5, 4);
+    GameState state = new GameState(game);
+
+    long nodesBefore = registry.getCounter(prefix + "Nodes").getCount();
+    unordered.computeBestMove(state);
+    long unorderedNodes = registry.getCounter(prefix + "Nodes").getCount() - nodesBefore;
+    nodesBefore = registry.getCounter(prefix + "Nodes").getCount();
+    ordered.computeBestMove(state);
+    long orderedNodes = registry.getCounter(prefix + "Nodes").getCount() - nodesBefore;
+    assert orderedNodes < unorderedNodes / 2 : orderedNodes + " nodes against " + unorderedNodes;
+    assert game.equals(new Game(5, 5, 4));
+  }
+
+  @Test
+  public void testPrincipalVariationSearch(){
+    Game game = new Game(4, 4, 4);
+    GameState state = new GameState(game);
+    NegaMaxAlphaBetaAlgorithm<GameState> alphaBeta = new NegaMaxAlphaBetaAlgorithm<>(false, 3);
+    PVSAlgorithm<GameState> pvs = new PVSAlgorithm<>(false, 3);
+    Random random = new Random(7);
+    for (int i = 0; i < 8; i++) {
+      // the zero window scouts and their searches again give the value of the full window search
+      assert pvs.computeBestMove(state) >= 0;
+      alphaBeta.computeBestMove(state);
+      int expected = alphaBeta.negaMax(state, 3, 0, -SearchEngine.INFINITY, SearchEngine.INFINITY);
+      assert pvs.negaMax(state, 3, 0, -SearchEngine.INFINITY, SearchEngine.INFINITY) == expected;
+      int[] moves = new int[state.getMaxMovesCount()];
+      int movesCount = state.getPossibleMoves(moves);
+      game.playTurn(moves[random.nextInt(movesCount)]);
+    }
+  }
+
+  @Test
+  public void testMtdfRoot(){
+    Game game = new Game(4, 4, 4);
+    GameState state = new GameState(game);
+    MTDAlgorithm<GameState> mtd = new MTDAlgorithm<>(true, 3);
+    NegaMaxAlphaBetaAlgorithm<GameState> alphaBeta = new NegaMaxAlphaBetaAlgorithm<>(false, 3);
+    int[] moves = new int[state.getMaxMovesCount()];
+    Random random = new Random(11);
+    for (int i = 0; i < 8; i++) {
+      alphaBeta.computeBestMove(state);
+      int move = mtd.computeBestMove(state);
+      // the move found by the zero window searches is worth the best move of the full window search
+      int best = -SearchEngine.INFINITY;
+      int found = -SearchEngine.INFINITY;
+      int movesCount = state.getDistinctMoves(moves);
+      for (int j = 0; j < movesCount; j++) {
+        state.apply(moves[j]);
+        int value = -alphaBeta.negaMax(state, 3, 1, -SearchEngine.INFINITY, SearchEngine.INFINITY);
+        state.undo(moves[j]);
+        best = Math.max(best, value);
+        if (moves[j] == move) {
+          found = value;
+        }
+      }
+      assert found == best : found + " for the best value " + best;
+      movesCount = state.getPossibleMoves(moves);
+      game.playTurn(moves[random.nextInt(movesCount)]);
+    }
+  }
+
+  @Test
+  public void testAspirationWindow(){
+    MetricRegistry.Counter researches = MetricRegistry.getInstance().getCounter(
+      IterativeDeepeningAlgorithm.class.getName() + "AspirationResearch");
+    Game game = new Game(4, 4, 4);
+    GameState state = new GameState(game);
+    IterativeDeepeningAlgorithm<GameState> iterative = new IterativeDeepeningAlgorithm<>(false, 4);
+    // a window narrow enough to be missed
+    iterative.setAspirationWindow(1);
+    iterative.setAspirationGrowth(2);
+    NegaMaxAlphaBetaAlgorithm<GameState> alphaBeta = new NegaMaxAlphaBetaAlgorithm<>(false, 4);
+    int[] moves = new int[state.getMaxMovesCount()];
+    Random random = new Random(3);
+    long researchesBefore = researches.getCount();
+    for (int i = 0; i < 6; i++) {
+      alphaBeta.computeBestMove(state);
+      int move = iterative.computeBestMove(state);
+      int best = -SearchEngine.INFINITY;
+      int found = -SearchEngine.INFINITY;
+      int movesCount = state.getDistinctMoves(moves);
+      for (int j = 0; j < movesCount; j++) {
+        state.apply(moves[j]);
+        int value = -alphaBeta.negaMax(state, 4, 1, -SearchEngine.INFINITY, SearchEngine.INFINITY);
+        state.undo(moves[j]);
+        best = Math.max(best, value);
+        if (moves[j] == move) {
+          found = value;
+        }
+      }
+      assert found == best : found + " for the best value " + best;
+      movesCount = state.getPossibleMoves(moves);
+      game.playTurn(moves[random.nextInt(movesCount)]);
+    }
+    assert researches.getCount() > researchesBefore;
+
+    try {
+      iterative.setAspirationGrowth(1);
+      assert false;
+    } catch (IllegalArgumentException e) {
+      assert iterative.getAspirationGrowth() == 2;
+    }
+  }
+
+  @Test
+  public void testMateDistance(){
+    Game game = new Game();
+    // O can win at once in (1, 0), or in three plies in (0, 2)
+    game.playTurn(game.toMove(0, 1));
+    game.playTurn(game.toMove(0, 0));
+    game.playTurn(game.toMove(1, 2));
+    game.playTurn(game.toMove(2, 0));
+    game.playTurn(game.toMove(2, 2));
+    GameState state = new GameState(game);
+    NegaMaxAlgorithm<GameState> negaMax = new NegaMaxAlgorithm<>(false, 9);
+    assert negaMax.computeBestMove(state) == game.toMove(1, 0);
+    assert negaMax.negaMax(state, 9, 0, -SearchEngine.INFINITY, SearchEngine.INFINITY) == SearchEngine.MATE - 1;
+
+    // O loses whatever it plays, blocking the diagonal delays it the most
+    game = new Game();
+    game.playTurn(game.toMove(1, 1));
+    game.playTurn(game.toMove(0, 1));
+    game.playTurn(game.toMove(0, 2));
+    state = new GameState(game);
+    assert negaMax.computeBestMove(state) == game.toMove(2, 0);
+    assert negaMax.negaMax(state, 9, 0, -SearchEngine.INFINITY, SearchEngine.INFINITY) == 4 - SearchEngine.MATE;
+  }
+
+  @Test
+  public void testSearchResult(){
+    // O loses in four plies whatever it plays
+    Game game = new Game();
+    game.playTurn(game.toMove(1, 1));
+    game.playTurn(game.toMove(0, 1));
+    game.playTurn(game.toMove(0, 2));
+    GameState state = new GameState(game);
+    NegaMaxAlgorithm<GameState> negaMax = new NegaMaxAlgorithm<>(false, 9);
+    SearchResult result = negaMax.search(state, new SearchLimits());
+    assert result == negaMax.getLastResult();
+    assert result.getBestMove() == game.toMove(2, 0);
+    assert result.isMate() && result.getScore() < 0 && result.getMateDistance() == 4;
+    assert result.getDepth() == 9;
+    assert !result.isAborted();
+    assert result.getNodes() > 0 && result.getCacheProbes() == 0;
+    // the principal variation is the game to the win of X
+    int[] pv = result.getPrincipalVariation();
+    assert pv.length == 4 && pv[0] == result.getBestMove();
+    for (int move : pv) {
+      assert game.getGameOutcome() == Game.Outcome.UNDETERMINED;
+      assert game.getCell(game.getMoveX(move), game.getMoveY(move)) == Game.Side.NEUTRAL;
+      game.playTurn(move);
+    }
+    assert game.getGameOutcome() == Game.Outcome.X_WON;
+
+    // without a mate, the principal variation leads to the leaf giving the score
+    game = new Game(4, 4, 4);
+    state = new GameState(game);
+    NegaMaxAlphaBetaAlgorithm<GameState> alphaBeta = new NegaMaxAlphaBetaAlgorithm<>(false, 3);
+    result = alphaBeta.search(state, new SearchLimits());
+    assert !result.isMate();
+    assert result.getPrincipalVariationLength() == 4;
+    for (int i = 0; i < result.getPrincipalVariationLength(); i++) {
+      game.playTurn(result.getPrincipalVariationMove(i));
+    }
+    assert state.getUtility() == result.getScore();
+
+    // the cached engine counts its probes
+    IterativeDeepeningAlgorithm<GameState> cached = new IterativeDeepeningAlgorithm<>(true, 5);
+    result = cached.search(new GameState(new Game(4, 4, 4)), new SearchLimits());
+    assert result.getDepth() == 5;
+    assert result.getPrincipalVariation()[0] == result.getBestMove();
+    assert result.getCacheHits() > 0 && result.getCacheHits() <= result.getCacheProbes();
+    assert result.getCacheHitRate() > 0 && result.getCacheHitRate() <= 1;
+  }
+
+  @Test
+  public void testParallelRoot(){
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      Random random = new Random(1);
+      int[] moves = new int[25];
+      for (int i = 0; i < 10; i++) {
+        Game game = new Game(5, 5, 4);
+        int plies = random.nextInt(6);
+        for (int j = 0; j < plies && game.getGameOutcome() == Game.Outcome.UNDETERMINED; j++) {
+          int movesCount = game.getPossibleMoves(moves);
+          game.playTurn(moves[random.nextInt(movesCount)]);
+        }
+        Game before = new Game(game);
+        // without a table the parallel search finds the move and the value of the sequential one
+        for (SearchEngine.Pruning pruning : new SearchEngine.Pruning[]{SearchEngine.Pruning.ALPHA_BETA,
+          SearchEngine.Pruning.PVS}) {
+          SearchEngine<GameState> sequential = new SearchEngine<>(pruning, SearchEngine.Deepening.ITERATIVE, false, 3);
+          sequential.setMoveOrdering(new KillerHistoryOrdering());
+          SearchEngine<GameState> parallel = new SearchEngine<>(pruning, SearchEngine.Deepening.ITERATIVE, false, 3);
+          parallel.setMoveOrdering(new KillerHistoryOrdering());
+          parallel.setPool(pool);
+          SearchResult expected = sequential.search(new GameState(game), new SearchLimits());
+          SearchResult result = parallel.search(new GameState(game), new SearchLimits());
+          assert result.getBestMove() == expected.getBestMove();
+          assert result.getScore() == expected.getScore();
+          assert result.getPrincipalVariation()[0] == result.getBestMove();
+        }
+        assert game.equals(before);
+      }
+
+      // the node budget holds for all the threads together
+      Game game = new Game(7, 7, 5);
+      game.playTurn(game.toMove(3, 3));
+      IterativeDeepeningAlgorithm<GameState> algorithm = new IterativeDeepeningAlgorithm<>(true, 64);
+      algorithm.setPool(pool);
+      SearchLimits limits = new SearchLimits();
+      limits.setMaxNodes(20000);
+      int move = algorithm.computeBestMove(new GameState(game), limits);
+      assert algorithm.getLastResult().isAborted();
+      assert algorithm.getLastResult().getNodes() <= 20000 + pool.getParallelism() + 1;
+      assert game.getCell(game.getMoveX(move), game.getMoveY(move)) == Game.Side.NEUTRAL;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testLazySmp(){
+    MetricRegistry.Counter nodes = MetricRegistry.getInstance().getCounter(
+      IterativeDeepeningAlgorithm.class.getName() + "Nodes");
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      // with the table shared between the threads the values stay the ones of the search without it
+      NegaMaxAlgorithm<GameState> uncached = new NegaMaxAlgorithm<>(false, 9);
+      IterativeDeepeningAlgorithm<GameState> lazySmp = new IterativeDeepeningAlgorithm<>(true, 9, pool);
+      assert lazySmp.getParallelism() == SearchEngine.Parallelism.LAZY_SMP;
+      Random random = new Random(13);
+      int[] moves = new int[9];
+      for (int i = 0; i < 20; i++) {
+        Game game = new Game();
+        GameState state = new GameState(game);
+        int plies = random.nextInt(5);
+        for (int j = 0; j < plies; j++) {
+          int movesCount = game.getPossibleMoves(moves);
+          game.playTurn(moves[random.nextInt(movesCount)]);
+        }
+        Game before = new Game(game);
+        SearchResult expected = uncached.search(state, new SearchLimits());
+        long nodesBefore = nodes.getCount();
+        SearchResult result = lazySmp.search(state, new SearchLimits());
+        assert result.getScore() == expected.getScore();
+        // the deepening stops once no node is left to the depth limit, at the latest with the last empty cell
+        assert result.getDepth() <= 9 - plies;
+        // the nodes of every thread are counted once
+        assert nodes.getCount() - nodesBefore == result.getNodes();
+        state.apply(result.getBestMove());
+        assert -uncached.negaMax(state, 9, 1, -SearchEngine.INFINITY, SearchEngine.INFINITY) == expected.getScore();
+        state.undo(result.getBestMove());
+        assert game.equals(before);
+      }
+
+      // stopped by a deadline, the helpers stop with it
+      Game game = new Game(7, 7, 5);
+      game.playTurn(game.toMove(3, 3));
+      IterativeDeepeningAlgorithm<GameState> deep = new IterativeDeepeningAlgorithm<>(true, 64, pool);
+      SearchLimits limits = new SearchLimits();
+      long start = System.nanoTime();
+      limits.setDeadline(start + 20000000L);
+      int move = deep.computeBestMove(new GameState(game), limits);
+      assert System.nanoTime() - start < 100000000L;
+      assert game.getCell(game.getMoveX(move), game.getMoveY(move)) == Game.Side.NEUTRAL;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testYoungBrothersWait(){
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      Random random = new Random(2);
+      int[] moves = new int[36];
+      for (int i = 0; i < 6; i++) {
+        Game game = new Game(6, 6, 4);
+        int plies = random.nextInt(6);
+        for (int j = 0; j < plies && game.getGameOutcome() == Game.Outcome.UNDETERMINED; j++) {
+          int movesCount = game.getPossibleMoves(moves);
+          game.playTurn(moves[random.nextInt(movesCount)]);
+        }
+        Game before = new Game(game);
+        // the young brothers searched in parallel give the values of the sequential search
+        for (SearchEngine.Pruning pruning : new SearchEngine.Pruning[]{SearchEngine.Pruning.ALPHA_BETA,
+          SearchEngine.Pruning.PVS}) {
+          SearchEngine<GameState> sequential = new SearchEngine<>(pruning, SearchEngine.Deepening.ITERATIVE, false, 4);
+          sequential.setMoveOrdering(new KillerHistoryOrdering());
+          SearchEngine<GameState> parallel = new SearchEngine<>(pruning, SearchEngine.Deepening.ITERATIVE, false, 4);
+          parallel.setMoveOrdering(new KillerHistoryOrdering());
+          parallel.setPool(pool);
+          parallel.setParallelism(SearchEngine.Parallelism.YBWC);
+          SearchResult expected = sequential.search(new GameState(game), new SearchLimits());
+          SearchResult result = parallel.search(new GameState(game), new SearchLimits());
+          assert result.getBestMove() == expected.getBestMove();
+          assert result.getScore() == expected.getScore();
+          Game replay = new Game(game);
+          for (int move : result.getPrincipalVariation()) {
+            assert replay.getCell(replay.getMoveX(move), replay.getMoveY(move)) == Game.Side.NEUTRAL;
+            replay.playTurn(move);
+          }
+        }
+        assert game.equals(before);
+      }
+
+      // and with the table, the exact values of the game
+      NegaMaxAlgorithm<GameState> uncached = new NegaMaxAlgorithm<>(false, 9);
+      YoungBrothersWaitAlgorithm<GameState> cached = new YoungBrothersWaitAlgorithm<>(true, 9, pool);
+      for (int i = 0; i < 10; i++) {
+        Game game = new Game();
+        int plies = random.nextInt(4);
+        for (int j = 0; j < plies; j++) {
+          int movesCount = game.getPossibleMoves(moves);
+          game.playTurn(moves[random.nextInt(movesCount)]);
+        }
+        GameState state = new GameState(game);
+        assert cached.search(state, new SearchLimits()).getScore()
+          == uncached.search(state, new SearchLimits()).getScore();
+      }
+
+      // stopped by a deadline
+      Game game = new Game(7, 7, 5);
+      game.playTurn(game.toMove(3, 3));
+      IterativeDeepeningAlgorithm<GameState> deep = new IterativeDeepeningAlgorithm<>(true, 64);
+      deep.setPool(pool);
+      deep.setParallelism(SearchEngine.Parallelism.YBWC);
+      SearchLimits limits = new SearchLimits();
+      long start = System.nanoTime();
+      limits.setDeadline(start + 20000000L);
+      int move = deep.computeBestMove(new GameState(game), limits);
+      assert System.nanoTime() - start < 100000000L;
+      assert game.getCell(game.getMoveX(move), game.getMoveY(move)) == Game.Side.NEUTRAL;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testYoungBrothersTie(){
+    // the bound of a brother failing low on a raised window may equal an exact value found later in the order
+    assert SearchEngine.isBetterSibling(30, true, 5, 30, false, 2);
+    assert !SearchEngine.isBetterSibling(30, false, 2, 30, true, 5);
+    // of two exact values the first move is kept, as in the sequential search
+    assert SearchEngine.isBetterSibling(30, true, 2, 30, true, 5);
+    assert !SearchEngine.isBetterSibling(30, true, 5, 30, true, 2);
+    assert !SearchEngine.isBetterSibling(30, false, 2, 30, false, 5);
+    assert SearchEngine.isBetterSibling(31, false, 5, 30, true, 2);
+    assert !SearchEngine.isBetterSibling(29, true, 2, 30, false, 5);
+  }
+
+  @Test
+  public void testMateScoresInTable(){
+    // the table shares the wins and losses between the plies, the scores must stay those of the search without it
+    NegaMaxAlgorithm<GameState> uncached = new NegaMaxAlgorithm<>(false, 9);
+    IterativeDeepeningAlgorithm<GameState> cached = new IterativeDeepeningAlgorithm<>(true, 9);
+    Random random = new Random(5);
+    int[] moves = new int[9];
+    for (int i = 0; i < 50; i++) {
+      Game game = new Game();
+      GameState state = new GameState(game);
+      int plies = random.nextInt(6);
+      for (int j = 0; j < plies && game.getGameOutcome() == Game.Outcome.UNDETERMINED; j++) {
+        int movesCount = game.getPossibleMoves(moves);
+        game.playTurn(moves[random.nextInt(movesCount)]);
+      }
+      uncached.computeBestMove(state);
+      cached.computeBestMove(state);
+      int expected = uncached.negaMax(state, 9, 0, -SearchEngine.INFINITY, SearchEngine.INFINITY);
+      assert cached.negaMax(state, 9, 0, -SearchEngine.INFINITY, SearchEngine.INFINITY) == expected;
+      assert cached.negaMax(state, 9, 0, expected - 1, expected + 1) == expected;
+    }
+  }
+
+  @Test
+  public void testLimits(){
+    Game game = new Game(7, 7, 5);
+    game.playTurn(game.toMove(3, 3));
+    Game before = new Game(game);
+    GameState state = new GameState(game);
+    SearchLimits limits = new SearchLimits();
+
+    // node budget
+    IterativeDeepeningAlgorithm<GameState> algorithm = new IterativeDeepeningAlgorithm<>(true, 64);
+    limits.setMaxNodes(5000);
+    int move = algorithm.computeBestMove(state, limits);
+    assert algorithm.getLastResult().isAborted();
+    assert algorithm.getLastResult().getNodes() <= 5001 : algorithm.getLastResult().getNodes();
+    assert game.getCell(game.getMoveX(move), game.getMoveY(move)) == Game.Side.NEUTRAL;
+    assert game.equals(before);
+
+    // a search stopped at the start of its third iteration returns the move of the second one
+    IterativeDeepeningAlgorithm<GameState> twoPlies = new IterativeDeepeningAlgorithm<>(true, 2);
+    int twoPliesMove = twoPlies.computeBestMove(state);
+    assert !twoPlies.getLastResult().isAborted();
+    algorithm = new IterativeDeepeningAlgorithm<>(true, 64);
+    limits.setMaxNodes(twoPlies.getLastResult().getNodes());
+    assert algorithm.computeBestMove(state, limits) == twoPliesMove;
+    assert algorithm.getLastResult().isAborted();
+
+    // depth limit
+    limits.reset();
+    limits.setMaxDepth(2);
+    assert algorithm.computeBestMove(state, limits) >= 0;
+    assert !algorithm.getLastResult().isAborted();
+
+    // deadline
+    limits.reset();
+    long start = System.nanoTime();
+    limits.setDeadline(start + 20000000L);
+    move = algorithm.computeBestMove(state, limits);
+    long elapsed = System.nanoTime() - start;
+    // stopped in an iteration, or before one which would not have completed in time
+    assert algorithm.getLastResult().getDepth() < 64;
+    assert elapsed < 60000000L : elapsed / 1000000 + "ms";
+    assert game.getCell(game.getMoveX(move), game.getMoveY(move)) == Game.Side.NEUTRAL;
+    assert game.equals(before);
+
+    // a stop requested before the search still gives a move
+    limits.reset();
+    limits.stop();
+    move = new IterativeDeepeningAlgorithm<GameState>(true, 64).computeBestMove(state, limits);
+    assert game.getCell(game.getMoveX(move), game.getMoveY(move)) == Game.Side.NEUTRAL;
+    assert game.equals(before);
+  }
+}
@@ -0,0 +1,29 @@
+package algorithms;
+
+import org.junit.Test;
+
+public class TimeManagerTest {
+
+  @Test
+  public void testAllocation(){
+    TimeManager manager = new TimeManager(1000, 100, 10);
+    // an equal share of the game time, less the margin
+    assert manager.startMove(5000, 20) == 5000 + 50 - 10;
+    manager.endMove(5040);
+    assert manager.getRemainingTime() == 960;
+    // no more than a move is allowed
+    assert manager.startMove(6000, 2) == 6000 + 100 - 10;
+    manager.endMove(6100);
+    assert manager.getRemainingTime() == 860;
+    assert manager.startMove(7000, 1, 2000) == 7000 + 860 - 10;
+    manager.endMove(7860);
+    // out of time, the search still gets a deadline
+    assert manager.startMove(8000, 1) == 8000;
+
+    // only the moves on a clock
+    manager = new TimeManager(Long.MAX_VALUE, 100, 10);
+    assert manager.startMove(-500, 30) == -500 + 90;
+    manager.endMove(-400);
+    assert manager.getRemainingTime() == Long.MAX_VALUE;
+  }
+}
@@ -0,0 +1,174 @@
+package algorithms;
+
+import algorithms.TranspositionTable.CacheFlag;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class TranspositionTableTest {
+
+  @Test
+  public void testStore(){
+    TranspositionTable table = new TranspositionTable(1);
+    // 1MB of 32 bytes buckets holding two entries
+    assert table.capacity() == 1 << 16;
+    assert table.probe(42) == 0;
+
+    table.store(42, 7, -123456, CacheFlag.LOWERBOUND, 8);
+    long entry = table.probe(42);
+    assert entry != 0;
+    assert TranspositionTable.getScore(entry) == -123456;
+    assert TranspositionTable.getDepth(entry) == 7;
+    assert TranspositionTable.getFlag(entry) == CacheFlag.LOWERBOUND;
+    assert TranspositionTable.getMove(entry) == 8;
+
+    // an empty result and an unknown move still make a valid entry
+    table.store(0, 0, 0, CacheFlag.EXACT, -1);
+    entry = table.probe(0);
+    assert entry != 0;
+    assert TranspositionTable.getScore(entry) == 0;
+    assert TranspositionTable.getMove(entry) == -1;
+    assert TranspositionTable.getFlag(entry) == CacheFlag.EXACT;
+
+    table.store(1, 1000, Integer.MAX_VALUE, CacheFlag.UPPERBOUND, 65000);
+    entry = table.probe(1);
+    assert TranspositionTable.getScore(entry) == Integer.MAX_VALUE;
+    assert TranspositionTable.getDepth(entry) == 255;
+    assert TranspositionTable.getMove(entry) == 65000;
+
+    assert table.size() == 3;
+    table.clear();
+    assert table.size() == 0;
+    assert table.probe(42) == 0;
+  }
+
+  @Test
+  public void testMeetingBounds(){
+    TranspositionTable table = new TranspositionTable(1);
+    table.store(42, 5, 30, CacheFlag.LOWERBOUND, 3);
+    table.store(42, 5, 30, CacheFlag.UPPERBOUND, 3);
+    assert TranspositionTable.getFlag(table.probe(42)) == CacheFlag.EXACT;
+
+    // bounds of other values or depths stay bounds
+    table.store(43, 5, 30, CacheFlag.LOWERBOUND, 3);
+    table.store(43, 5, 20, CacheFlag.UPPERBOUND, 3);
+    assert TranspositionTable.getFlag(table.probe(43)) == CacheFlag.UPPERBOUND;
+    table.store(44, 5, 30, CacheFlag.LOWERBOUND, 3);
+    table.store(44, 6, 30, CacheFlag.UPPERBOUND, 3);
+    assert TranspositionTable.getFlag(table.probe(44)) == CacheFlag.UPPERBOUND;
+  }
+
+  @Test
+  public void testReplacement(){
+    TranspositionTable table = new TranspositionTable(1);
+    long bucketsCount = table.capacity() / 2;
+    long deep = 5;
+    long shallow = deep + bucketsCount;
+    long latest = deep + 2 * bucketsCount;
+
+    table.store(deep, 6, 1, CacheFlag.EXACT, 0);
+    table.store(shallow, 2, 2, CacheFlag.EXACT, 0);
+    // the deep entry keeps its slot, the shallow one takes the other
+    assert TranspositionTable.getScore(table.probe(deep)) == 1;
+    assert TranspositionTable.getScore(table.probe(shallow)) == 2;
+
+    table.store(latest, 3, 3, CacheFlag.EXACT, 0);
+    assert table.probe(shallow) == 0;
+    assert TranspositionTable.getScore(table.probe(deep)) == 1;
+    assert TranspositionTable.getScore(table.probe(latest)) == 3;
+
+    // a deeper search takes the depth-preferred slot, the entry it replaces moves to the other one
+    table.store(shallow, 8, 4, CacheFlag.EXACT, 0);
+    assert TranspositionTable.getScore(table.probe(shallow)) == 4;
+    assert TranspositionTable.getScore(table.probe(deep)) == 1;
+    assert table.probe(latest) == 0;
+
+    // a key already in the depth-preferred slot is updated in place whatever its depth
+    table.store(shallow, 1, 5, CacheFlag.EXACT, 0);
+    assert TranspositionTable.getScore(table.probe(shallow)) == 5;
+    assert TranspositionTable.getScore(table.probe(deep)) == 1;
+    assert table.size() == 2;
+  }
+
+  @Test
+  public void testAging(){
+    TranspositionTable table = new TranspositionTable(1);
+    long bucketsCount = table.capacity() / 2;
+    long old = 5;
+    long used = 6;
+    long fresh = old + bucketsCount;
+    long latest = old + 2 * bucketsCount;
+
+    table.store(old, 8, 1, CacheFlag.EXACT, 0);
+    table.store(used, 8, 2, CacheFlag.EXACT, 0);
+    table.newSearch();
+    assert table.getGeneration() == 1;
+    // entries of the previous search are still found
+    long entry = table.probe(used);
+    assert TranspositionTable.getScore(entry) == 2;
+    assert TranspositionTable.getGeneration(entry) == 1;
+
+    // a stale entry gives up the depth-preferred slot to a shallower search, without being kept
+    table.store(fresh, 2, 3, CacheFlag.EXACT, 0);
+    table.store(latest, 1, 4, CacheFlag.EXACT, 0);
+    assert table.probe(old) == 0;
+    assert TranspositionTable.getScore(table.probe(fresh)) == 3;
+    assert TranspositionTable.getScore(table.probe(latest)) == 4;
+
+    // the probed entry belongs to the current search and keeps its slot
+    table.store(used + bucketsCount, 2, 5, CacheFlag.EXACT, 0);
+    assert TranspositionTable.getScore(table.probe(used)) == 2;
+
+    // generations wrap around
+    for (int i = 0; i < 63; i++) {
+      table.newSearch();
+    }
+    assert table.getGeneration() == 0;
+    table.store(7, 3, -6, CacheFlag.UPPERBOUND, 9);
+    entry = table.probe(7);
+    assert TranspositionTable.getScore(entry) == -6;
+    assert TranspositionTable.getMove(entry) == 9;
+    assert TranspositionTable.getGeneration(entry) == 0;
+  }
+
+  @Test
+  public void testConstantSize(){
+    TranspositionTable table = new TranspositionTable(1);
+    for (long key = 0; key < 10 * table.capacity(); key++) {
+      table.store(key * 0x9E3779B97F4A7C15L, (int) (key % 10), (int) key, CacheFlag.EXACT, 0);
+    }
+    assert table.size() == table.capacity();
+  }
+
+  @Test
+  public void testConcurrentAccess() throws InterruptedException {
+    TranspositionTable table = new TranspositionTable(1);
+    long bucketsCount = table.capacity() / 2;
+    // threads storing and probing keys of the same few buckets, a key always stores the same score and move
+    AtomicInteger mismatches = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      int seed = t;
+      threads[t] = new Thread(() -> {
+        Random random = new Random(seed);
+        for (int i = 0; i < 200000; i++) {
+          long key = random.nextInt(4) + random.nextInt(8) * bucketsCount;
+          if (random.nextBoolean()) {
+            table.store(key, random.nextInt(10), (int) key * 7, CacheFlag.EXACT, (int) key & 0xFFF);
+          } else {
+            long entry = table.probe(key);
+            if (entry != 0 && (TranspositionTable.getScore(entry) != (int) key * 7
+              || TranspositionTable.getMove(entry) != ((int) key & 0xFFF))) {
+              mismatches.incrementAndGet();
+            }
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assert mismatches.get() == 0 : mismatches.get() + " entries of other keys";
+  }
+}
@@ -0,0 +1,67 @@
+package tic_tac_toe;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import org.junit.Test;
+import tic_tac_toe.players.NegaMaxAlphaBetaPlayer;
+
+public class CodinGameBotTest {
+
+    private static String validMoves(Game game) {
+        StringBuilder builder = new StringBuilder();
+        int[] moves = new int[game.getWidth() * game.getHeight()];
+        int count = game.getPossibleMoves(moves);
+        builder.append(count).append('\n');
+        for (int i = 0; i < count; i++) {
+            builder.append(game.getMoveY(moves[i])).append(' ').append(game.getMoveX(moves[i])).append('\n');
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void testFirstTurn(){
+        Player player = new NegaMaxAlphaBetaPlayer();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        String input = "-1 -1\n" + validMoves(new Game());
+        CodinGameBot bot = new CodinGameBot(player, new ByteArrayInputStream(input.getBytes()), output);
+        try {
+            bot.run();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        assert player.getSide() == Game.Side.X;
+        assert player.getDeadline()
+          == bot.getTurnStartTime() + CodinGameBot.FIRST_TURN_TIME - CodinGameBot.SAFETY_MARGIN;
+        assert bot.getGame().getTotalCount() == 1;
+        String[] move = output.toString().trim().split(" ");
+        assert output.toString().endsWith("\n");
+        int row = Integer.parseInt(move[0]);
+        int col = Integer.parseInt(move[1]);
+        assert bot.getGame().getCell(col, row) == Game.Side.X;
+    }
+
+    @Test
+    public void testOpponentMoves(){
+        Player player = new NegaMaxAlphaBetaPlayer();
+        Game referee = new Game();
+        // the opponent opens in the center
+        StringBuilder input = new StringBuilder();
+        referee.playTurn(referee.toMove(1, 1));
+        input.append("1 1\n").append(validMoves(referee));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CodinGameBot bot = new CodinGameBot(player, new ByteArrayInputStream(input.toString().getBytes()), output);
+        try {
+            bot.run();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        assert player.getSide() == Game.Side.O;
+        assert bot.getGame().getCell(1, 1) == Game.Side.X;
+        String[] move = output.toString().trim().split(" ");
+        int row = Integer.parseInt(move[0]);
+        int col = Integer.parseInt(move[1]);
+        assert row != 1 || col != 1;
+        assert bot.getGame().getCell(col, row) == Game.Side.O;
+        assert bot.getGame().getTotalCount() == 2;
+    }
+}
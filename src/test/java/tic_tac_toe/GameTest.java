@@ -2,6 +2,7 @@ package tic_tac_toe;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 import org.junit.Test;
 import tic_tac_toe.Game.Side;
@@ -204,4 +205,275 @@ public class GameTest {
         b.setCell(2, 0, Game.Side.NEUTRAL);
         assert(b.equals(Game.fromHash(b.hashCode())));
     }
+
+    @Test
+    public void testIsFull(){
+        Game b;
+        b = new Game();
+        assert(!b.isFull());
+        assert(b.getTotalCount() == 0);
+        b = Game.fromString("XOX|OXO|OX.");
+        assert(!b.isFull());
+        assert(b.getTotalCount() == 8);
+        b.setCell(2, 2, Game.Side.O);
+        assert(b.isFull());
+        assert(b.getGameOutcome() == Game.Outcome.DRAW);
+        b.setCell(2, 2, Game.Side.X); // overwriting a cell keeps the count
+        assert(b.isFull());
+        assert(b.getGameOutcome() == Game.Outcome.X_WON);
+        b.setCell(2, 2, Game.Side.NEUTRAL);
+        assert(!b.isFull());
+        assert(b.getGameOutcome() == Game.Outcome.UNDETERMINED);
+        assert(b.getCell(2, 2) == Game.Side.NEUTRAL);
+    }
+
+    @Test
+    public void testLargeBoard(){
+        Game b = new Game(15, 15, 5);
+        assert(b.getWidth() == 15 && b.getHeight() == 15 && b.getWinLength() == 5);
+        for (int x = 3; x < 7; x++) {
+            b.setCell(x, 7, Side.X);
+            assert (b.getGameOutcome() == Game.Outcome.UNDETERMINED);
+        }
+        assert(b.getOpenLines(Side.X, 4) == 2);
+        b.setCell(7, 7, Side.O); // blocks one end
+        assert(b.getOpenLines(Side.X, 4) == 1);
+        b.setCell(2, 7, Side.X);
+        assert (b.getGameOutcome() == Game.Outcome.X_WON);
+        b.setCell(2, 7, Side.NEUTRAL);
+        assert (b.getGameOutcome() == Game.Outcome.UNDETERMINED);
+
+        // anti diagonal reaching the border
+        b = new Game(15, 15, 5);
+        for (int i = 0; i < 5; i++) {
+            b.setCell(10 + i, 14 - i, Side.O);
+        }
+        assert (b.getGameOutcome() == Game.Outcome.O_WON);
+
+        // positions of large boards never collide on equals
+        Game a = new Game(15, 15, 5);
+        Game c = new Game(15, 15, 5);
+        a.setCell(14, 14, Side.X);
+        c.setCell(14, 14, Side.X);
+        assert(a.equals(c) && a.hashCode() == c.hashCode());
+        c.setCell(0, 0, Side.O);
+        assert(!a.equals(c));
+        assert(!a.equals(new Game(15, 15, 4)));
+    }
+
+    @Test
+    public void testRectangularBoard(){
+        Game b = Game.fromString("X...|X...|X...|...O", 3);
+        assert(b.getWidth() == 4 && b.getHeight() == 4);
+        assert (b.getGameOutcome() == Game.Outcome.X_WON);
+        b = Game.fromString("XX.O.|OOX.X", 3);
+        assert(b.getWidth() == 5 && b.getHeight() == 2);
+        assert (b.getGameOutcome() == Game.Outcome.UNDETERMINED);
+        b.setCell(2, 0, Side.X);
+        assert (b.getGameOutcome() == Game.Outcome.X_WON);
+        assert(b.equals(Game.fromString(b.toString(), 3)));
+    }
+
+    @Test
+    public void testKey(){
+        // every 3x3 position has its own key
+        Set<Long> keys = new HashSet<>();
+        for (int hash = 0; hash < 1 << 18; hash++) {
+            boolean valid = true;
+            for (int cell = 0; cell < 9; cell++) {
+                valid &= ((hash >> (2 * cell)) & 3) != 3;
+            }
+            if (valid) {
+                assert keys.add(Game.fromHash(hash).getKey());
+            }
+        }
+        assert keys.size() == 19683;
+
+        // the key only depends on the position, not on the order of the moves
+        Game a = Game.fromString("XO.|.X.|..O");
+        Game b = new Game();
+        b.setCell(2, 2, Side.O);
+        b.setCell(1, 1, Side.X);
+        b.setCell(1, 0, Side.O);
+        b.setCell(0, 0, Side.X);
+        assert a.getKey() == b.getKey();
+
+        // playing and undoing moves restores the key
+        Random random = new Random(42);
+        Game game = new Game(7, 6, 4);
+        long emptyKey = game.getKey();
+        int[] played = new int[42];
+        int count = 0;
+        while (game.getGameOutcome() == Game.Outcome.UNDETERMINED) {
+            int x = random.nextInt(7);
+            int y = random.nextInt(6);
+            if (game.getCell(x, y) == Side.NEUTRAL) {
+                long before = game.getKey();
+                game.setCell(x, y);
+                assert game.getKey() != before;
+                played[count++] = x * 6 + y;
+            }
+        }
+        while (count > 0) {
+            int cell = played[--count];
+            game.setCell(cell / 6, cell % 6, Side.NEUTRAL);
+        }
+        assert game.getKey() == emptyKey;
+    }
+
+    @Test
+    public void testCanonicalKey(){
+        // rotations and reflections share the same canonical key
+        Game a = Game.fromString("XO.|...|...");
+        for (String symmetric : new String[]{"..X|..O|...", "...|...|.OX", "...|O..|X..", ".OX|...|...", "X..|O..|..."}) {
+            Game b = Game.fromString(symmetric);
+            assert a.getCanonicalKey() == b.getCanonicalKey();
+            assert a.getKey() != b.getKey();
+            // and the same canonical moves, the X stone of each one is the same canonical cell
+            int aStone = a.toMove(0, 0);
+            int bStone = b.toMove(symmetric.indexOf('X') % 4, symmetric.indexOf('X') / 4);
+            assert a.toCanonicalMove(aStone) == b.toCanonicalMove(bStone);
+            assert b.fromCanonicalMove(b.toCanonicalMove(bStone)) == bStone;
+        }
+        assert a.getCanonicalKey() != Game.fromString("X..|.O.|...").getCanonicalKey();
+
+        // the 3^9 boards fall into 2862 classes under the 8 symmetries of the square
+        Set<Long> keys = new HashSet<>();
+        for (int hash = 0; hash < 1 << 18; hash++) {
+            boolean valid = true;
+            for (int cell = 0; cell < 9; cell++) {
+                valid &= ((hash >> (2 * cell)) & 3) != 3;
+            }
+            if (valid) {
+                keys.add(Game.fromHash(hash).getCanonicalKey());
+            }
+        }
+        assert keys.size() == 2862;
+    }
+
+    @Test
+    public void testDistinctMoves(){
+        assert new Game().getDistinctMoves().size() == 3;
+        assert Game.fromString("...|.X.|...").getDistinctMoves().size() == 2;
+        assert Game.fromString("X..|...|...").getDistinctMoves().size() == 5;
+        // rectangular boards only have 4 symmetries
+        assert new Game(4, 3, 3).getDistinctMoves().size() == 4;
+        assert Game.fromString("XO.|...|...").getDistinctMoves().size() == 7;
+    }
+
+    @Test
+    public void testUndoOutcome(){
+        Random random = new Random(7);
+        int[] moves = new int[42];
+        for (int round = 0; round < 100; round++) {
+            Game game = new Game(7, 6, 4);
+            Game.Outcome[] outcomes = new Game.Outcome[43];
+            int[] played = new int[42];
+            int plies = 0;
+            while (game.getGameOutcome() == Game.Outcome.UNDETERMINED) {
+                outcomes[plies] = game.getGameOutcome();
+                int count = game.getPossibleMoves(moves);
+                played[plies] = moves[random.nextInt(count)];
+                game.playTurn(played[plies++]);
+                // the outcome found from the last move is the one of the whole board
+                assert game.getGameOutcome() == Game.fromString(game.toString(), 4).getGameOutcome();
+            }
+            while (plies > 0) {
+                game.undoTurn(played[--plies]);
+                assert game.getGameOutcome() == outcomes[plies];
+            }
+            assert game.equals(new Game(7, 6, 4));
+        }
+
+        Game game = Game.fromString("XX.|OO.|...");
+        game.playTurn(new Point(2, 0));
+        assert game.getGameOutcome() == Game.Outcome.X_WON;
+        game.undoTurn(new Point(2, 0));
+        assert game.getGameOutcome() == Game.Outcome.UNDETERMINED;
+        try {
+            game.undoTurn(new Point(0, 0));
+            assert false;
+        } catch (IllegalStateException e) {
+            // the stones set by fromString were not played
+        }
+        game.playTurn(new Point(2, 0));
+        try {
+            game.playTurn(new Point(0, 0));
+            assert false;
+        } catch (IllegalArgumentException e) {
+            // the cell already holds a stone
+        }
+        try {
+            game.undoTurn(new Point(2, 2));
+            assert false;
+        } catch (IllegalArgumentException e) {
+            // no stone to take back on an empty cell
+        }
+    }
+
+    @Test
+    public void testSnapshot(){
+        Game game = Game.fromString("XO.|.X.|..O");
+        GameSnapshot snapshot = game.snapshot();
+        assert snapshot.getCell(0, 0) == Game.Side.X;
+        assert snapshot.getCell(1, 0) == Game.Side.O;
+        assert snapshot.getCell(2, 0) == Game.Side.NEUTRAL;
+        assert snapshot.getCurrentSide() == game.getCurrentSide();
+        assert snapshot.toString().equals(game.toString());
+        assert snapshot.toGame().equals(game);
+
+        // later moves do not change the snapshot
+        game.playTurn(new Point(2, 0));
+        assert snapshot.getCell(2, 0) == Game.Side.NEUTRAL;
+        assert !snapshot.equals(game.snapshot());
+        game.undoTurn(new Point(2, 0));
+        assert snapshot.equals(game.snapshot());
+        assert snapshot.hashCode() == game.snapshot().hashCode();
+
+        Game won = Game.fromString("XXX|OO.|...");
+        assert won.snapshot().getGameOutcome() == Game.Outcome.X_WON;
+        assert won.snapshot().toGame().getGameOutcome() == Game.Outcome.X_WON;
+
+        // same stones on boards of other dimensions are other positions
+        assert !Game.fromString("X..|...|...", 3).snapshot().equals(Game.fromString("X..|...|...", 2).snapshot());
+
+        // every 3x3 position has its own key
+        Set<Long> keys = new HashSet<>();
+        int positions = 0;
+        for (int hash = 0; hash < 1 << 18; hash++) {
+            boolean valid = true;
+            for (int cell = 0; cell < 9; cell++) {
+                valid &= ((hash >> (2 * cell)) & 3) != 3;
+            }
+            if (valid) {
+                positions++;
+                keys.add(Game.fromHash(hash).snapshot().getKey());
+            }
+        }
+        assert keys.size() == positions;
+
+        Game large = new Game(8, 8, 5);
+        large.setCell(7, 7, Game.Side.O);
+        assert large.snapshot().toGame().equals(large);
+
+        // more than 64 cells, the stones past the first word are kept
+        Game huge = new Game(9, 9, 5);
+        huge.playTurn(huge.toMove(0, 0));
+        huge.playTurn(huge.toMove(8, 8));
+        huge.playTurn(huge.toMove(1, 7));
+        GameSnapshot hugeSnapshot = huge.snapshot();
+        assert hugeSnapshot.getWordsCount() == 2;
+        assert hugeSnapshot.getCell(8, 8) == Game.Side.O;
+        assert hugeSnapshot.getCell(1, 7) == Game.Side.X;
+        assert hugeSnapshot.getTotalCount() == 3;
+        assert hugeSnapshot.getCurrentSide() == Game.Side.O;
+        assert hugeSnapshot.toGame().equals(huge);
+        assert hugeSnapshot.toString().equals(huge.toString());
+        huge.undoTurn(huge.toMove(1, 7));
+        assert !hugeSnapshot.equals(huge.snapshot());
+        assert hugeSnapshot.getKey() != huge.snapshot().getKey();
+        huge.playTurn(huge.toMove(1, 7));
+        assert hugeSnapshot.equals(huge.snapshot());
+        assert hugeSnapshot.hashCode() == huge.snapshot().hashCode();
+    }
 }
@@ -0,0 +1,50 @@
+package tic_tac_toe;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import tic_tac_toe.Perft.PerftResult;
+
+public class PerftTest {
+
+    @Test
+    public void testFullGame(){
+        long[] nodes = {1, 9, 72, 504, 3024, 15120, 54720, 148176, 200448, 127872};
+        PerftResult result = Perft.perft(new Game(), 9);
+        for (int ply = 0; ply <= 9; ply++) {
+            assert result.getNodes(ply) == nodes[ply];
+        }
+        assert result.getTotalNodes() == 549946;
+        assert result.getTotalXWins() == 131184;
+        assert result.getTotalOWins() == 77904;
+        assert result.getTotalDraws() == 46080;
+        assert result.getXWins(5) == 1440;
+        assert result.getDraws(9) == 46080;
+    }
+
+    @Test
+    public void testParallel(){
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Game game = new Game(4, 4, 3);
+            PerftResult single = Perft.perft(game, 5);
+            PerftResult parallel = Perft.perft(game, 5, pool);
+            for (int ply = 0; ply <= 5; ply++) {
+                assert single.getNodes(ply) == parallel.getNodes(ply);
+                assert single.getXWins(ply) == parallel.getXWins(ply);
+                assert single.getOWins(ply) == parallel.getOWins(ply);
+            }
+            // the walk leaves the game as it was
+            assert game.equals(new Game(4, 4, 3));
+            assert Perft.perft(new Game(), 9, pool).getTotalNodes() == 549946;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFinishedGame(){
+        PerftResult result = Perft.perft(Game.fromString("XXX|OO.|..."), 4);
+        assert result.getTotalNodes() == 1;
+        assert result.getXWins(0) == 1;
+    }
+}
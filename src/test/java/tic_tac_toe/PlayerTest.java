@@ -1,13 +1,20 @@
 package tic_tac_toe;
 
+import algorithms.NegaMaxAlphaBetaAlgorithm;
+import java.lang.management.ManagementFactory;
 import java.util.HashMap;
 import org.junit.Test;
 import tic_tac_toe.Game.Side;
 import tic_tac_toe.players.AlphaBetaPlayer;
-import tic_tac_toe.players.AlphaBetaPlayer.GameState;
+import tic_tac_toe.players.IterativeDeepeningPlayer;
+import tic_tac_toe.players.MTDPlayer;
+import tic_tac_toe.players.MctsPlayer;
+import tic_tac_toe.players.GameState;
 import tic_tac_toe.players.MiniMaxPlayer;
 import tic_tac_toe.players.NegaMaxPlayer;
 import tic_tac_toe.players.NegaMaxAlphaBetaPlayer;
+import tic_tac_toe.players.PVSPlayer;
+import utils.MetricRegistry;
 
 public class PlayerTest {
 
@@ -19,6 +26,10 @@ public class PlayerTest {
     findWinningMoveTest(new NegaMaxAlphaBetaPlayer());
     findWinningMoveTest(new AlphaBetaPlayer());
     findWinningMoveTest(new NegaMaxPlayer());
+    findWinningMoveTest(new IterativeDeepeningPlayer());
+    findWinningMoveTest(new MTDPlayer());
+    findWinningMoveTest(new PVSPlayer());
+    findWinningMoveTest(new MctsPlayer());
   }
 
   @Test
@@ -43,7 +54,7 @@ public class PlayerTest {
                       g.setCell(2, 0, i20);
                       g.setCell(2, 1, i21);
                       g.setCell(2, 2, i22);
-                      GameState gs = new GameState(g, g.getCurrentSide());
+                      GameState gs = new GameState(g);
                       assert !before.containsKey(gs);
 
                       before.put(gs, false);
@@ -57,7 +68,7 @@ public class PlayerTest {
                       g1.setCell(2, 0, i20);
                       g1.setCell(2, 1, i21);
                       g1.setCell(2, 2, i22);
-                      GameState gs1 = new GameState(g1, g1.getCurrentSide());
+                      GameState gs1 = new GameState(g1);
                       assert before.containsKey(gs1);
                     }
                   }
@@ -70,6 +81,34 @@ public class PlayerTest {
     }
   }
 
+  @Test
+  public void allocationFreeSearchTest(){
+    com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    NegaMaxAlphaBetaAlgorithm<GameState> algorithm = new NegaMaxAlphaBetaAlgorithm<>(false, 9);
+    MetricRegistry.Counter nodes = MetricRegistry.getInstance().getCounter(
+      NegaMaxAlphaBetaAlgorithm.class.getName() + "Nodes");
+    Game game = new Game();
+    GameState state = new GameState(game);
+    int move = 0;
+    // warm up the move buffers and the JIT
+    for (int i = 0; i < 20; i++) {
+      move = algorithm.computeBestMove(state);
+    }
+    long nodesBefore = nodes.getCount();
+    long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < 20; i++) {
+      assert algorithm.computeBestMove(state) == move;
+    }
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    long searchedNodes = nodes.getCount() - nodesBefore;
+    assert searchedNodes > 50000 : searchedNodes;
+    // the only allocations left are the boxed samples of the timers and the cache histogram, a few per search, and
+    // the growth of the lists keeping them
+    assert allocated < 10 * 1024 : allocated + " bytes allocated for " + searchedNodes + " nodes";
+    assert game.equals(new Game());
+  }
+
   private void findWinningMoveTest(Player currentPlayer){
     Game game;
     Point point;
@@ -0,0 +1,219 @@
+package ultimate_tic_tac_toe;
+
+import algorithms.AlphaBetaAlgorithm;
+import algorithms.IterativeDeepeningAlgorithm;
+import algorithms.MTDAlgorithm;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import tic_tac_toe.Game.Outcome;
+import tic_tac_toe.Game.Side;
+
+public class UltimateGameTest {
+
+    private static void play(UltimateGame game, int... rowsAndCols) {
+        for (int i = 0; i < rowsAndCols.length; i += 2) {
+            game.playTurn(UltimateGame.toMove(rowsAndCols[i], rowsAndCols[i + 1]));
+        }
+    }
+
+    @Test
+    public void testMoveEncoding(){
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int move = UltimateGame.toMove(row, col);
+                assert UltimateGame.getRow(move) == row;
+                assert UltimateGame.getCol(move) == col;
+            }
+        }
+        // center cell of the top right board
+        assert UltimateGame.toMove(1, 7) == 2 * 9 + 4;
+    }
+
+    @Test
+    public void testPossibleMoves(){
+        UltimateGame game = new UltimateGame();
+        int[] moves = new int[UltimateGame.MOVES_COUNT];
+        assert game.getPossibleMoves(moves) == 81;
+
+        // the top right cell of the center board sends the opponent to the top right board
+        play(game, 3, 5);
+        assert game.getNextBoard() == 2;
+        int count = game.getPossibleMoves(moves);
+        assert count == 9;
+        for (int i = 0; i < count; i++) {
+            assert moves[i] / 9 == 2;
+        }
+
+        // a move sending the opponent back to the same board leaves one cell less
+        game = new UltimateGame();
+        play(game, 4, 4);
+        assert game.getPossibleMoves(moves) == 8;
+
+        // ply 2 of the whole game
+        game = new UltimateGame();
+        int[] second = new int[UltimateGame.MOVES_COUNT];
+        int total = 0;
+        for (int i = 0; i < game.getPossibleMoves(moves); i++) {
+            game.playTurn(moves[i]);
+            total += game.getPossibleMoves(second);
+            game.undoTurn(moves[i]);
+        }
+        assert total == 720;
+    }
+
+    @Test
+    public void testBoardWin(){
+        UltimateGame game = new UltimateGame();
+        // O takes the middle row of the top left board
+        play(game, 0, 0, 1, 0, 3, 0, 1, 1, 3, 3);
+        assert game.getWonBoards(Side.O) == 0;
+        play(game, 1, 2);
+        assert game.getWonBoards(Side.O) == 1;
+        assert game.getClosedBoards() == 1;
+        assert game.getGameOutcome() == Outcome.UNDETERMINED;
+        assert game.getNextBoard() == 5;
+
+        // the top left board is closed, a move sending there frees the opponent to play any open board
+        play(game, 3, 6);
+        assert game.getNextBoard() == -1;
+        int[] moves = new int[UltimateGame.MOVES_COUNT];
+        int count = game.getPossibleMoves(moves);
+        assert count == 8 * 9 - 3;
+        for (int i = 0; i < count; i++) {
+            assert moves[i] / 9 != 0;
+        }
+        game.undoTurn(UltimateGame.toMove(3, 6));
+        game.undoTurn(UltimateGame.toMove(1, 2));
+        assert game.getClosedBoards() == 0;
+        assert game.getNextBoard() == 0;
+    }
+
+    @Test
+    public void testPlayout(){
+        UltimateGame game = new UltimateGame();
+        Random random = new Random(1);
+        int xWins = 0;
+        int oWins = 0;
+        int draws = 0;
+        for (int i = 0; i < 2000; i++) {
+            switch (game.playout(random)) {
+                case X_WON:
+                    xWins++;
+                    break;
+                case O_WON:
+                    oWins++;
+                    break;
+                case DRAW:
+                    draws++;
+                    break;
+                default:
+                    assert false;
+            }
+            // the playout leaves the game as it was
+            assert game.equals(new UltimateGame());
+            assert game.getKey() == new UltimateGame().getKey();
+        }
+        assert xWins > 0 && oWins > 0 && draws > 0;
+    }
+
+    @Test
+    public void testUndo(){
+        Random random = new Random(3);
+        int[] moves = new int[UltimateGame.MOVES_COUNT];
+        for (int round = 0; round < 200; round++) {
+            UltimateGame game = new UltimateGame();
+            int[] played = new int[UltimateGame.MOVES_COUNT];
+            long[] keys = new long[UltimateGame.MOVES_COUNT + 1];
+            Outcome[] outcomes = new Outcome[UltimateGame.MOVES_COUNT + 1];
+            int[] nextBoards = new int[UltimateGame.MOVES_COUNT + 1];
+            int plies = 0;
+            while (game.getGameOutcome() == Outcome.UNDETERMINED) {
+                keys[plies] = game.getKey();
+                outcomes[plies] = game.getGameOutcome();
+                nextBoards[plies] = game.getNextBoard();
+                int count = game.getPossibleMoves(moves);
+                played[plies] = moves[random.nextInt(count)];
+                game.playTurn(played[plies++]);
+                // a copy plays on independently
+                UltimateGame copy = new UltimateGame(game);
+                assert copy.equals(game) && copy.getKey() == game.getKey();
+            }
+            assert game.getPossibleMoves(moves) == 0;
+            while (plies > 0) {
+                game.undoTurn(played[--plies]);
+                assert game.getKey() == keys[plies];
+                assert game.getGameOutcome() == outcomes[plies];
+                assert game.getNextBoard() == nextBoards[plies];
+            }
+            assert game.equals(new UltimateGame());
+            assert game.getClosedBoards() == 0;
+        }
+    }
+
+    @Test
+    public void testKey(){
+        // the same stones reached in another order with the same constraint share the key
+        UltimateGame a = new UltimateGame();
+        play(a, 4, 4, 3, 3, 0, 0, 1, 1);
+        UltimateGame b = new UltimateGame();
+        play(b, 0, 0, 3, 3, 4, 4, 1, 1);
+        assert a.getNextBoard() == b.getNextBoard();
+        assert a.getKey() == b.getKey();
+        assert a.equals(b);
+
+        // the keys of the positions after two moves are all different
+        UltimateGame game = new UltimateGame();
+        int[] moves = new int[UltimateGame.MOVES_COUNT];
+        int[] second = new int[UltimateGame.MOVES_COUNT];
+        Set<Long> keys = new HashSet<>();
+        int positions = 0;
+        int count = game.getPossibleMoves(moves);
+        for (int i = 0; i < count; i++) {
+            game.playTurn(moves[i]);
+            keys.add(game.getKey());
+            int secondCount = game.getPossibleMoves(second);
+            for (int j = 0; j < secondCount; j++) {
+                game.playTurn(second[j]);
+                keys.add(game.getKey());
+                positions++;
+                game.undoTurn(second[j]);
+            }
+            game.undoTurn(moves[i]);
+        }
+        assert keys.size() == positions + count;
+    }
+
+    @Test
+    public void testSearch(){
+        // play random games until one is won by X, and take its last move back
+        Random random = new Random(5);
+        int[] moves = new int[UltimateGame.MOVES_COUNT];
+        int[] played = new int[UltimateGame.MOVES_COUNT];
+        UltimateGame game;
+        int plies;
+        do {
+            game = new UltimateGame();
+            plies = 0;
+            while (game.getGameOutcome() == Outcome.UNDETERMINED) {
+                int count = game.getPossibleMoves(moves);
+                played[plies] = moves[random.nextInt(count)];
+                game.playTurn(played[plies++]);
+            }
+        } while (game.getGameOutcome() != Outcome.X_WON);
+        game.undoTurn(played[plies - 1]);
+
+        GameState state = new GameState(game);
+        int[] bestMoves = {
+          new AlphaBetaAlgorithm<GameState>(true, 2).computeBestMove(state),
+          new IterativeDeepeningAlgorithm<GameState>(true, 2).computeBestMove(state),
+          new MTDAlgorithm<GameState>(true, 2).computeBestMove(state)
+        };
+        for (int move : bestMoves) {
+            game.playTurn(move);
+            assert game.getGameOutcome() == Outcome.X_WON;
+            game.undoTurn(move);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import org.junit.Test;
+
+public class InputParserTest {
+
+  @Test
+  public void testNextInt() throws IOException {
+    // a tiny buffer so that numbers are split between two reads
+    InputParser parser = new InputParser(new ByteArrayInputStream("-1 -1\r\n12  345\n\t7".getBytes()), 3);
+    assert parser.nextInt() == -1;
+    assert parser.getLastReadTime() > 0;
+    assert parser.nextInt() == -1;
+    assert parser.nextInt() == 12;
+    assert parser.nextInt() == 345;
+    assert parser.nextInt() == 7;
+    try {
+      parser.nextInt();
+      assert false;
+    } catch (EOFException e) {
+      // end of the input
+    }
+  }
+
+  @Test
+  public void testInvalidInput() throws IOException {
+    InputParser parser = new InputParser(new ByteArrayInputStream("4 x".getBytes()));
+    assert parser.nextInt() == 4;
+    try {
+      parser.nextInt();
+      assert false;
+    } catch (EOFException e) {
+      assert false;
+    } catch (IOException e) {
+      // not a number
+    }
+  }
+}